@@ -4,17 +4,27 @@ import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 import task.Deadline;
 import task.Event;
+import task.FuzzyIndex;
+import task.SearchCursor;
+import task.StatusIndex;
+import task.TaskQuery;
 import task.Task;
+import task.TaskMap;
 import task.Todo;
-import util.ListMapWriter;
+import util.LazyTaskMap;
 import util.ListReader;
+import util.PersistenceService;
+import util.SegmentedTaskMap;
+import util.StorageLayout;
+import util.TaskFileFormat;
+import util.TaskJournal;
 
 /**
  * The {@code ChatBotLogic} class is responsible for processing user input,
@@ -25,6 +35,34 @@ import util.ListReader;
  * based on user commands and input.
  */
 public class ChatBotLogic {
+    /**
+     * The prefix of the command that lists one page of tasks in name order, starting at a given name.
+     */
+    private static final String SORT_FROM_COMMAND = "sort from ";
+    /**
+     * The number of tasks shown per page by {@value #SORT_FROM_COMMAND}.
+     */
+    private static final int SORT_PAGE_SIZE = 50;
+    /**
+     * The prefix of the command that lists one page of tasks in the order {@code view} shows them.
+     */
+    private static final String PAGE_COMMAND = "page ";
+    /**
+     * The number of tasks shown per page by {@value #PAGE_COMMAND} when no page size is given.
+     */
+    private static final int VIEW_PAGE_SIZE = 50;
+    /**
+     * The number of tasks listed by {@code upcoming} when no count is given.
+     */
+    private static final int DEFAULT_UPCOMING_COUNT = 5;
+    /**
+     * The number of matches shown per page by {@code find}.
+     */
+    private static final int FIND_PAGE_SIZE = 10;
+    /**
+     * The number of similar names suggested when mark, unmark or delete is given a name that does not exist.
+     */
+    private static final int SUGGESTION_COUNT = 3;
     /**
      * The current state of the chatbot's event chain.
      */
@@ -32,15 +70,11 @@ public class ChatBotLogic {
     /**
      * A map that holds tasks, with task names as keys and {@link Task} objects as values.
      */
-    private Map<String, Task> taskList;
+    private TaskMap taskList;
     /**
      * A utility for reading tasks from a file.
      */
     private ListReader reader = new ListReader();
-    /**
-     * A utility for writing tasks to a file.
-     */
-    private ListMapWriter writer = new ListMapWriter();
     /**
      * Temporary storage for task names during task creation.
      */
@@ -65,10 +99,39 @@ public class ChatBotLogic {
      * A reference to a task for operations like marking, unmarking, or deleting.
      */
     private Task flaggedTask = null;
+    /**
+     * The matches of the last {@code find}, while the user is choosing one of them.
+     */
+    private SearchCursor searchResults = null;
     /**
      * The file path where tasks are stored.
      */
     private String filePath = System.getProperty("user.home") + "/sigmaBotTasks.txt";
+    /**
+     * The directory holding the manifest and segment files when tasks are stored segmented.
+     */
+    private String segmentDirectory = System.getProperty("user.home") + "/sigmaBotTasks.segments";
+    /**
+     * Whether tasks are kept in a single file or in lazily loaded segments.
+     */
+    private StorageLayout storageLayout = StorageLayout.fromSystemProperty();
+    /**
+     * The format the storage file is rewritten in. Existing files are read in whichever format they use.
+     */
+    private TaskFileFormat fileFormat = TaskFileFormat.fromSystemProperty();
+    /**
+     * Whether find also searches descriptions and event locations, set with {@code -Dsigmabot.find.details=true}.
+     */
+    private boolean isSearchingDetails = Boolean.getBoolean("sigmabot.find.details");
+    /**
+     * The largest edit distance at which a name is suggested for a mistyped one, set with
+     * {@code -Dsigmabot.fuzzy.distance=<n>}. Zero turns suggestions off.
+     */
+    private int suggestionDistance = Integer.getInteger("sigmabot.fuzzy.distance", 2);
+    /**
+     * Writes journal records and snapshots in the background so that saving never blocks the caller.
+     */
+    private PersistenceService persistence;
     /**
      * Constructs a new {@code ChatBotLogic} instance, initializes the event chain type,
      * and loads the storage file containing tasks.
@@ -89,11 +152,16 @@ public class ChatBotLogic {
     }
 
     private String loadStorageFile() {
+        if (storageLayout == StorageLayout.SEGMENTED) {
+            return loadSegmentedStore();
+        }
+        persistence = new PersistenceService(new TaskJournal(filePath), fileFormat);
         File taskFile = new File(filePath);
         if (!taskFile.exists()) {
             try {
                 if (taskFile.createNewFile()) {
-                    taskList = new HashMap<String, Task>();
+                    // a journal may outlive a lost snapshot
+                    taskList = new TaskMap(reader.readTasksWithJournal(filePath));
                     return ("No tasks file found. Created a new file: " + filePath);
                 } else {
                     return ("Failed to create a new tasks file.");
@@ -103,7 +171,9 @@ public class ChatBotLogic {
             }
         } else {
             try {
-                taskList = reader.readTasksFromFile(filePath);
+                taskList = storageLayout == StorageLayout.LAZY
+                        ? openLazily()
+                        : new TaskMap(reader.readTasksWithJournal(filePath));
             } catch (IOException e) {
                 return ("Error loading tasks: " + e.getMessage());
             }
@@ -111,6 +181,275 @@ public class ChatBotLogic {
         return "Read list from" + filePath;
     }
 
+    /**
+     * Indexes the storage file without decoding its tasks, then replays the journal on top of it.
+     */
+    private TaskMap openLazily() throws IOException {
+        TaskMap lazyList = LazyTaskMap.open(filePath).asTaskMap();
+        new TaskJournal(filePath).replay(lazyList);
+        lazyList.drainChanges(); // the replayed changes are already in the journal
+        return lazyList;
+    }
+
+    /**
+     * Opens the segmented task store, reading only its manifest and the segments touched by the journal.
+     * A store that does not exist yet is seeded from the single storage file, if there is one.
+     */
+    private String loadSegmentedStore() {
+        try {
+            SegmentedTaskMap store = SegmentedTaskMap.open(segmentDirectory, fileFormat);
+            TaskJournal journal = new TaskJournal(store.getManifestPath());
+            persistence = new PersistenceService(journal, tasks -> store.captureDirtySegments(),
+                    Long.getLong(PersistenceService.COMPACTION_THRESHOLD_PROPERTY,
+                            PersistenceService.DEFAULT_COMPACTION_THRESHOLD));
+            taskList = store.asTaskMap();
+            if (store.isNew() && new File(filePath).exists()) {
+                store.putAll(reader.readTasksWithJournal(filePath));
+                persistence.writeSnapshot(store);
+                return "Moved tasks from " + filePath + " into " + segmentDirectory;
+            }
+            // Replayed through the task map, so that replayed marks dirty their segments for the next snapshot
+            journal.replay(taskList);
+            taskList.drainChanges(); // the replayed changes are already in the journal
+            return "Opened task segments in " + segmentDirectory;
+        } catch (IOException e) {
+            taskList = new TaskMap();
+            persistence = new PersistenceService(new TaskJournal(filePath), fileFormat);
+            return "Error loading task segments: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Queues the tasks changed by the last command to be saved, compacts the journal into a fresh snapshot if it
+     * has grown too large, and reports whether the background writer has failed to save earlier changes.
+     *
+     * @return An empty string if every change so far was saved, or a warning to be shown to the user.
+     */
+    private String saveWarning() {
+        persistence.recordChanges(taskList); // only the changed records are written
+        persistence.compactIfNeeded(taskList);
+        IOException e = persistence.pollFailure();
+        return e == null ? "" : "\n(warning: changes not saved yet: " + e.getMessage() + ")";
+    }
+
+    /**
+     * Suggests the existing task names closest to a name that was not found.
+     *
+     * @param name The name that was not found.
+     * @return The suggestions, or an empty string if no name is close enough.
+     */
+    private String suggestions(String name) {
+        if (suggestionDistance <= 0) {
+            return "";
+        }
+        List<FuzzyIndex.Match> matches = taskList.getFuzzyIndex().closest(name, suggestionDistance,
+                SUGGESTION_COUNT);
+        if (matches.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(" Did you mean: ");
+        for (int i = 0; i < matches.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(matches.get(i).name());
+        }
+        return sb.append('?').toString();
+    }
+
+    /**
+     * Lists every task in name order by walking the sorted index.
+     *
+     * @return Each task followed by its name, one after another.
+     */
+    private String sortedTasks() {
+        StringBuilder sb = new StringBuilder();
+        TaskListRenderer.renderPage(taskList.getSortedIndex().names().iterator(), taskList, 0, Integer.MAX_VALUE,
+                sb);
+        return sb.toString();
+    }
+
+    /**
+     * Lists the tasks in the order they are stored, in full or one page at a time.
+     *
+     * @param offset The number of tasks to skip.
+     * @param limit  The maximum number of tasks to show.
+     * @return The task count, followed by the tasks on the page and, if there are more, the command for the next
+     *         page with the same page size.
+     */
+    private String viewTasks(int offset, int limit) {
+        StringBuilder sb = new StringBuilder("You currently have ").append(taskList.size()).append("tasks: \n");
+        int shown = TaskListRenderer.renderPage(taskList.keySet().iterator(), taskList, offset, limit, sb);
+        if (offset + shown < taskList.size()) {
+            sb.append("more: ").append(PAGE_COMMAND).append(offset / limit + 2).append(' ').append(limit);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Answers {@code page <number> [size]}, which lists one page of the tasks in the order {@code view} shows
+     * them.
+     *
+     * @param userMessage The command entered by the user.
+     * @return The page, an error message, or {@code null} if the message is not a page command.
+     */
+    private String processPageQuery(String userMessage) {
+        if (!userMessage.startsWith(PAGE_COMMAND)) {
+            return null;
+        }
+        String[] words = userMessage.substring(PAGE_COMMAND.length()).trim().split("\\s+");
+        try {
+            int page = Integer.parseInt(words[0]);
+            int size = words.length > 1 ? Integer.parseInt(words[1]) : VIEW_PAGE_SIZE;
+            if (words.length <= 2 && page >= 1 && size >= 1 && (long) (page - 1) * size <= Integer.MAX_VALUE) {
+                return viewTasks((page - 1) * size, size);
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the usage message
+        }
+        return "Please enter a page number and an optional page size, e.g. " + PAGE_COMMAND + "2 50";
+    }
+
+    /**
+     * Lists one page of tasks in name order, starting at the given name.
+     *
+     * @param fromName The name to start at; it does not have to belong to a task.
+     * @return The page, followed by the command that shows the next page if there is one.
+     */
+    private String sortedPage(String fromName) {
+        List<Task> page = taskList.getSortedIndex().page(fromName, SORT_PAGE_SIZE);
+        if (page.isEmpty()) {
+            return "no tasks from " + fromName;
+        }
+        StringBuilder sb = new StringBuilder(TaskListRenderer.render(page));
+        String next = taskList.getSortedIndex().nameAfter(page.get(page.size() - 1).getName());
+        if (next != null) {
+            sb.append("more: ").append(SORT_FROM_COMMAND).append(next);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Answers the date range commands {@code due before <date>}, {@code between <date> <date>} and
+     * {@code overlapping <date> <date>} from the date index, and {@code upcoming [count]}, which lists the next
+     * undone deadlines and events from today, from the upcoming index. Dates are entered as yyyy-mm-dd.
+     *
+     * @param userMessage The command entered by the user.
+     * @return The matching tasks, an error message, or {@code null} if the message is not a date command.
+     */
+    private String processDateQuery(String userMessage) {
+        String[] words = userMessage.trim().split("\\s+");
+        try {
+            List<Task> matches;
+            if (words.length == 3 && words[0].equals("due") && words[1].equals("before")) {
+                matches = taskList.getDateIndex().dueBefore(LocalDate.parse(words[2]));
+            } else if (words.length == 3 && words[0].equals("between")) {
+                matches = taskList.getDateIndex().dueBetween(LocalDate.parse(words[1]), LocalDate.parse(words[2]));
+            } else if (words.length == 3 && words[0].equals("overlapping")) {
+                matches = taskList.getDateIndex().eventsOverlapping(LocalDate.parse(words[1]),
+                        LocalDate.parse(words[2]));
+            } else if (words.length <= 2 && words[0].equals("upcoming")) {
+                int count = words.length == 2 ? Integer.parseInt(words[1]) : DEFAULT_UPCOMING_COUNT;
+                if (count < 1) {
+                    return "Please enter the number of tasks to show, e.g. upcoming 5";
+                }
+                matches = taskList.getUpcomingIndex().next(LocalDate.now(), count);
+            } else {
+                return null;
+            }
+            if (matches.isEmpty()) {
+                return "no matching tasks";
+            }
+            return TaskListRenderer.render(matches);
+        } catch (DateTimeParseException e) {
+            return "Invalid date format. Please enter in yyyy-MM-dd format.";
+        } catch (NumberFormatException e) {
+            return "Please enter the number of tasks to show, e.g. upcoming 5";
+        }
+    }
+
+    /**
+     * Answers {@code count <filters>} and {@code filter <filters>}, which count or list the tasks passing every
+     * filter, from the status index. The filters are {@code done}, {@code undone}, {@code todo},
+     * {@code deadline}, {@code event} and {@code overdue}, which selects the undone deadlines due before today.
+     *
+     * @param userMessage The command entered by the user.
+     * @return The count or the matching tasks, an error message, or {@code null} if the message is not a
+     *     status command.
+     */
+    private String processStatusQuery(String userMessage) {
+        String[] words = userMessage.trim().split("\\s+");
+        if (!words[0].equals("count") && !words[0].equals("filter")) {
+            return null;
+        }
+        EnumSet<StatusIndex.Filter> filters = EnumSet.noneOf(StatusIndex.Filter.class);
+        boolean isOverdue = false;
+        for (int i = 1; i < words.length; i++) {
+            String word = words[i].endsWith("s") ? words[i].substring(0, words[i].length() - 1) : words[i];
+            if (word.equals("overdue")) {
+                isOverdue = true;
+                filters.add(StatusIndex.Filter.UNDONE);
+                continue;
+            }
+            try {
+                filters.add(StatusIndex.Filter.valueOf(word.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                return "unknown filter " + words[i] + ". Use done, undone, todo, deadline, event or overdue";
+            }
+        }
+        StatusIndex index = taskList.getStatusIndex();
+        if (!isOverdue && words[0].equals("count")) {
+            return index.count(filters) + " tasks";
+        }
+        List<Task> matches;
+        if (isOverdue) {
+            // Only deadlines can be overdue, so the date index narrows the search before the status bits do
+            matches = new ArrayList<>();
+            for (Task task : taskList.getDateIndex().dueBefore(LocalDate.now())) {
+                if (index.matches(task.getName(), filters)) {
+                    matches.add(task);
+                }
+            }
+        } else {
+            matches = index.list(filters);
+        }
+        if (words[0].equals("count")) {
+            return matches.size() + " tasks";
+        }
+        if (matches.isEmpty()) {
+            return "no matching tasks";
+        }
+        return TaskListRenderer.render(matches);
+    }
+
+    /**
+     * Answers {@code query <terms>}, which lists the tasks matching a {@link TaskQuery}, and
+     * {@code explain <terms>}, which shows how that query would be run.
+     *
+     * @param userMessage The command entered by the user.
+     * @return The matching tasks or the plan, an error message, or {@code null} if the message is not a query
+     *     command.
+     */
+    private String processQuery(String userMessage) {
+        boolean isExplaining = userMessage.startsWith("explain ");
+        if (!isExplaining && !userMessage.startsWith("query ")) {
+            return null;
+        }
+        TaskQuery.Plan plan;
+        try {
+            plan = TaskQuery.parse(userMessage.substring(userMessage.indexOf(' ') + 1))
+                    .plan(taskList, isSearchingDetails);
+        } catch (IllegalArgumentException e) {
+            return "Invalid query: " + e.getMessage()
+                    + ". Use terms like type:deadline done:false due<2026-12-01 name~report";
+        }
+        if (isExplaining) {
+            return plan.explain();
+        }
+        List<Task> matches = plan.execute();
+        if (matches.isEmpty()) {
+            return "no matching tasks";
+        }
+        return TaskListRenderer.render(matches);
+    }
+
     /**
      * Picks a random joke from the joke bank.
      *
@@ -185,6 +524,9 @@ public class ChatBotLogic {
         case FOUND -> {
             return processFoundState(userMessage);
         }
+        case RESULTS -> {
+            return processResultsState(userMessage);
+        }
         case MARK -> {
             return processMarkState(userMessage);
         }
@@ -203,7 +545,17 @@ public class ChatBotLogic {
     private String processTerminateState(String userMessage) {
         switch (userMessage) {
         case "yes" -> {
-            writer.writeMapToFile(taskList, filePath);
+            try {
+                persistence.recordChanges(taskList); // so that the journal is complete if the snapshot fails
+                persistence.writeSnapshot(taskList); // fold the journal into the storage file
+            } catch (IOException snapshotError) {
+                try {
+                    persistence.awaitDurable(); // every change is still safe in the journal
+                } catch (IOException journalError) {
+                    return "Could not save your tasks: " + snapshotError.getMessage()
+                            + ". Enter yes to retry, or anything else to go back.";
+                }
+            }
             System.exit(0);
         }
         default -> {
@@ -239,7 +591,7 @@ public class ChatBotLogic {
         switch (userMessage) {
         case "view" -> {
             EventChainType.setState(this, EventChainType.VIEW);
-            return "You currently have " + taskList.size() + "tasks: \n" + taskList.keySet().stream().reduce("", (x, y) -> x + taskList.get(y) + y + "\n");
+            return viewTasks(0, Integer.MAX_VALUE);
         }
         case "add" -> {
             EventChainType.setState(this, EventChainType.ADD);
@@ -258,7 +610,7 @@ public class ChatBotLogic {
             return "enter the name of task to delete";
         }
         case "sort" -> {
-            return taskList.keySet().stream().sorted().reduce("", (x, y) -> x + taskList.get(y) + y + "\n");
+            return sortedTasks();
         }
         case "find" -> {
             EventChainType.setState(this, EventChainType.FIND);
@@ -269,6 +621,25 @@ public class ChatBotLogic {
             return "return to main";
         }
         default -> {
+            if (userMessage.startsWith(SORT_FROM_COMMAND)) {
+                return sortedPage(userMessage.substring(SORT_FROM_COMMAND.length()));
+            }
+            String dateQuery = processDateQuery(userMessage);
+            if (dateQuery != null) {
+                return dateQuery;
+            }
+            String statusQuery = processStatusQuery(userMessage);
+            if (statusQuery != null) {
+                return statusQuery;
+            }
+            String query = processQuery(userMessage);
+            if (query != null) {
+                return query;
+            }
+            String page = processPageQuery(userMessage);
+            if (page != null) {
+                return page;
+            }
             return "unknown list command";
         }
         }
@@ -366,11 +737,12 @@ public class ChatBotLogic {
             return "back to main";
         }
         default -> {
-            taskList.put(tempName, Todo.createTodo(tempName, userMessage)); // push newly created task in map
-            writer.writeMapToFile(taskList, filePath); // immediate rewrite storage upon update
+            Todo todo = Todo.createTodo(tempName, userMessage);
+            taskList.put(tempName, todo); // push newly created task in map
+            String warning = saveWarning();
             EventChainType.setState(this, EventChainType.ADD);
             return "todo added. You currently have " + taskList.size()
-                    + " tasks: \n" + "enter type for the next task to be added: ";
+                    + " tasks: \n" + "enter type for the next task to be added: " + warning;
         }
         }
     }
@@ -406,11 +778,12 @@ public class ChatBotLogic {
         default -> {
             try {
                 LocalDate byDate = LocalDate.parse(userMessage);
-                taskList.put(tempName, Deadline.createDeadline(tempName, tempDescription, byDate));
-                writer.writeMapToFile(taskList, filePath); // immediate rewrite storage upon update
+                Deadline deadline = Deadline.createDeadline(tempName, tempDescription, byDate);
+                taskList.put(tempName, deadline);
+                String warning = saveWarning();
                 EventChainType.setState(this, EventChainType.ADD);
                 return "deadline added. You currently have " + taskList.size()
-                        + " tasks: \n" + "enter type for the next task to be added: ";
+                        + " tasks: \n" + "enter type for the next task to be added: " + warning;
             } catch (DateTimeParseException e) {
                 return "invalid format. please retry";
             }
@@ -516,7 +889,7 @@ public class ChatBotLogic {
             // Create and add the Event task
             Event event = Event.createEvent(tempName, tempDescription, tempStartTime, tempEndTime, tempLocation);
             taskList.put(tempName, event);
-            writer.writeMapToFile(taskList, filePath); // immediate rewrite storage upon update
+            String warning = saveWarning();
             // Reset temporary variables
             tempName = null;
             tempDescription = null;
@@ -525,7 +898,7 @@ public class ChatBotLogic {
             tempLocation = null;
             EventChainType.setState(this, EventChainType.ADD);
             return "event added. You currently have " + taskList.size()
-                    + " tasks: \n" + "enter type for the next task to be added: ";
+                    + " tasks: \n" + "enter type for the next task to be added: " + warning;
         }
         }
     }
@@ -557,9 +930,28 @@ public class ChatBotLogic {
             return "return to main";
         }
         case "sort" -> {
-            return taskList.keySet().stream().sorted().reduce("", (x, y) -> x + taskList.get(y) + y + "\n");
+            return sortedTasks();
         }
         default -> {
+            if (userMessage.startsWith(SORT_FROM_COMMAND)) {
+                return sortedPage(userMessage.substring(SORT_FROM_COMMAND.length()));
+            }
+            String dateQuery = processDateQuery(userMessage);
+            if (dateQuery != null) {
+                return dateQuery;
+            }
+            String statusQuery = processStatusQuery(userMessage);
+            if (statusQuery != null) {
+                return statusQuery;
+            }
+            String query = processQuery(userMessage);
+            if (query != null) {
+                return query;
+            }
+            String page = processPageQuery(userMessage);
+            if (page != null) {
+                return page;
+            }
             return "unknown command";
         }
         }
@@ -576,14 +968,75 @@ public class ChatBotLogic {
             return "back to main";
         }
         default -> {
-            for (Task task : taskList.values()) {
-                if (task.getName().toLowerCase().contains(userMessage)) {
-                    flaggedTask = task;
-                    EventChainType.setState(this, EventChainType.FOUND);
-                    return "Found task: " + task.toString();
-                }
+            // Whole-word matches first, then the remaining matches on part of a word
+            searchResults = new SearchCursor(List.of(taskList.getTokenIndex().matches(userMessage),
+                    taskList.getTrigramIndex(isSearchingDetails).matches(userMessage)));
+            List<Task> page = searchResults.nextPage(FIND_PAGE_SIZE);
+            if (page.isEmpty()) {
+                searchResults = null;
+                return userMessage + " not found";
+            }
+            if (page.size() == 1 && !searchResults.hasMore()) {
+                searchResults = null;
+                flaggedTask = page.get(0);
+                EventChainType.setState(this, EventChainType.FOUND);
+                return "Found task: " + flaggedTask.toString();
+            }
+            EventChainType.setState(this, EventChainType.RESULTS);
+            return formatResults(page);
+        }
+        }
+    }
+
+    /**
+     * Numbers a page of find results, continuing from the results already shown.
+     */
+    private String formatResults(List<Task> page) {
+        StringBuilder sb = new StringBuilder();
+        int number = searchResults.getShownCount() - page.size();
+        for (Task task : page) {
+            sb.append(++number).append(". ").append(task).append('\n');
+        }
+        sb.append("enter a number to choose a task");
+        if (searchResults.hasMore()) {
+            sb.append(", or next for more matches");
+        }
+        return sb.toString();
+    }
+
+    private String processResultsState(String userMessage) {
+        switch (userMessage) {
+        case "next" -> {
+            List<Task> page = searchResults.nextPage(FIND_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return "no more matches";
             }
-            return userMessage + " not found";
+            return formatResults(page);
+        }
+        case "back" -> {
+            searchResults = null;
+            EventChainType.setState(this, EventChainType.FIND);
+            return "enter keyword: ";
+        }
+        case "exit" -> {
+            searchResults = null;
+            EventChainType.setState(this, EventChainType.DEFAULT);
+            return "back to main";
+        }
+        default -> {
+            Task selected;
+            try {
+                selected = searchResults.select(Integer.parseInt(userMessage.trim()));
+            } catch (NumberFormatException e) {
+                return "enter a number from the list, next, back or exit";
+            }
+            if (selected == null) {
+                return "no match numbered " + userMessage.trim();
+            }
+            searchResults = null;
+            flaggedTask = selected;
+            EventChainType.setState(this, EventChainType.FOUND);
+            return "Found task: " + flaggedTask.toString();
         }
         }
     }
@@ -609,7 +1062,7 @@ public class ChatBotLogic {
                 flaggedTask.markDone();
                 flaggedTask = null;
                 EventChainType.setState(this, EventChainType.VIEW);
-                return taskName + " marked done";
+                return taskName + " marked done" + saveWarning();
             }
         }
         case "unmark" -> {
@@ -621,7 +1074,7 @@ public class ChatBotLogic {
                 flaggedTask.markUndone();
                 flaggedTask = null;
                 EventChainType.setState(this, EventChainType.VIEW);
-                return taskName + " marked undone";
+                return taskName + " marked undone" + saveWarning();
             }
         }
         case "delete" -> {
@@ -629,7 +1082,7 @@ public class ChatBotLogic {
             taskList.remove(taskRemoved);
             flaggedTask = null;
             EventChainType.setState(this, EventChainType.VIEW);
-            return taskRemoved + " has been removed.";
+            return taskRemoved + " has been removed." + saveWarning();
         }
         default -> {
             return "unknown command";
@@ -648,13 +1101,13 @@ public class ChatBotLogic {
             return "back to main";
         }
         default -> {
-            for (Task task : taskList.values()) {
-                if (task.getName().equalsIgnoreCase(userMessage)) {
-                    task.markDone();
-                    return "Mark task: " + task.toString() + ". Enter name for the next task to mark";
-                }
+            Task task = taskList.getNameIndex().find(userMessage);
+            if (task == null) {
+                return userMessage + " not found." + suggestions(userMessage);
             }
-            return userMessage + " not found.";
+            task.markDone();
+            String warning = saveWarning();
+            return "Mark task: " + task.toString() + ". Enter name for the next task to mark" + warning;
         }
         }
     }
@@ -670,13 +1123,13 @@ public class ChatBotLogic {
             return "back to main";
         }
         default -> {
-            for (Task task : taskList.values()) {
-                if (task.getName().equalsIgnoreCase(userMessage)) {
-                    task.markUndone();
-                    return "Unmark task: " + task.toString() + ". Enter name for the next task to unmark";
-                }
+            Task task = taskList.getNameIndex().find(userMessage);
+            if (task == null) {
+                return userMessage + " not found." + suggestions(userMessage);
             }
-            return userMessage + " not found.";
+            task.markUndone();
+            String warning = saveWarning();
+            return "Unmark task: " + task.toString() + ". Enter name for the next task to unmark" + warning;
         }
         }
     }
@@ -692,13 +1145,13 @@ public class ChatBotLogic {
             return "back to main";
         }
         default -> {
-            for (Task task : taskList.values()) {
-                if (task.getName().equalsIgnoreCase(userMessage)) {
-                    taskList.remove(userMessage);
-                    return "remove task: " + userMessage + ". Enter name for the next task to remove";
-                }
+            Task task = taskList.getNameIndex().find(userMessage);
+            if (task == null) {
+                return userMessage + " not found." + suggestions(userMessage);
             }
-            return userMessage + " not found.";
+            taskList.remove(task.getName()); // the stored name, which may differ in case from the input
+            String warning = saveWarning();
+            return "remove task: " + userMessage + ". Enter name for the next task to remove" + warning;
         }
         }
     }
@@ -62,6 +62,11 @@ public enum EventChainType {
      */
     FOUND,
 
+    /**
+     * The state where find has listed several matches, waiting for the user to choose one or ask for more.
+     */
+    RESULTS,
+
     /**
      * The state for marking a task as done.
      */
@@ -0,0 +1,71 @@
+package logic;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import task.Task;
+
+/**
+ * The {@code TaskListRenderer} class turns lists of tasks into the text the chatbot replies with.
+ * <p>
+ * Every task is appended to one buffer, which is sized up front from the number of tasks, so rendering costs
+ * time in proportion to the length of the text produced. Paged rendering skips the tasks before the page by
+ * name, without looking the tasks up or rendering them, so given the key set of a lazily loaded task map it only
+ * loads the tasks on the page.
+ */
+final class TaskListRenderer {
+    /**
+     * A rough length of one rendered task, used to size the buffer.
+     */
+    private static final int TYPICAL_TASK_LENGTH = 96;
+    /**
+     * The most tasks the buffer is sized for up front, so that a huge list does not reserve memory all at once.
+     */
+    private static final int MAX_PRESIZED_TASKS = 1 << 16;
+
+    private TaskListRenderer() {
+    }
+
+    /**
+     * Renders each task followed by its name, one after another.
+     *
+     * @param tasks The tasks to render.
+     * @return The rendered tasks.
+     */
+    static String render(Collection<Task> tasks) {
+        StringBuilder sb = new StringBuilder(Math.min(tasks.size(), MAX_PRESIZED_TASKS) * TYPICAL_TASK_LENGTH);
+        for (Task task : tasks) {
+            append(sb, task);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Renders up to {@code limit} tasks, skipping the first {@code offset} names.
+     *
+     * @param names  The names of the tasks, in the order to show them, such as an iterator over
+     *               {@link task.TaskMap#keySet()}, which yields names without loading tasks.
+     * @param tasks  The tasks, looked up by name only for the names on the page.
+     * @param offset The number of names to skip.
+     * @param limit  The maximum number of tasks to render.
+     * @param sb     The buffer to append the tasks to.
+     * @return The number of tasks rendered.
+     */
+    static int renderPage(Iterator<String> names, Map<String, Task> tasks, int offset, int limit,
+            StringBuilder sb) {
+        for (int skipped = 0; skipped < offset && names.hasNext(); skipped++) {
+            names.next();
+        }
+        int rendered = 0;
+        while (rendered < limit && names.hasNext()) {
+            append(sb, tasks.get(names.next()));
+            rendered++;
+        }
+        return rendered;
+    }
+
+    private static void append(StringBuilder sb, Task task) {
+        sb.append(task).append(task.getName()).append('\n');
+    }
+}
@@ -0,0 +1,259 @@
+package task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The {@code DateIndex} class answers date range queries over deadlines and events in O(log n + k) time, where
+ * k is the number of tasks returned.
+ * <p>
+ * Deadlines are kept in a sorted map from due date to the names of the tasks due that day, so "due before" and
+ * "between" are range views of that map. Events are kept in an interval tree: a treap ordered by start date
+ * whose nodes also record the latest end date in their subtree, so an overlap query can skip every subtree that
+ * ends before the range starts or begins after it ends.
+ */
+public class DateIndex implements TaskMap.Listener {
+    private final TaskMap tasks;
+    private final TreeMap<LocalDate, Set<String>> deadlines = new TreeMap<>();
+    private final Random priorities = new Random();
+    private Node events;
+
+    /**
+     * A node of the event interval tree.
+     */
+    private static final class Node {
+        final long start;
+        final long end;
+        final String name;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(long start, long end, String name, int priority) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, long otherEnd, String otherName) {
+            if (start != otherStart) {
+                return Long.compare(start, otherStart);
+            }
+            if (end != otherEnd) {
+                return Long.compare(end, otherEnd);
+            }
+            return name.compareTo(otherName);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    DateIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        for (Task task : tasks.values()) {
+            add(task);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns the deadlines due strictly before the given date, earliest first.
+     *
+     * @param date The exclusive upper bound.
+     * @return The matching deadlines.
+     */
+    public List<Task> dueBefore(LocalDate date) {
+        return collect(deadlines.headMap(date, false));
+    }
+
+    /**
+     * Returns the deadlines due on or between the given dates, earliest first.
+     *
+     * @param from The first day of the range.
+     * @param to   The last day of the range.
+     * @return The matching deadlines, or an empty list if {@code to} is before {@code from}.
+     */
+    public List<Task> dueBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return List.of();
+        }
+        return collect(deadlines.subMap(from, true, to, true));
+    }
+
+    /**
+     * Returns the number of deadlines due on or between the given dates, without looking at the tasks.
+     *
+     * @param from The first day of the range.
+     * @param to   The last day of the range.
+     * @return The number of deadlines {@link #dueBetween} would return.
+     */
+    public int countDueBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return 0;
+        }
+        int count = 0;
+        for (Set<String> names : deadlines.subMap(from, true, to, true).values()) {
+            count += names.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the events that take place on at least one day from {@code from} to {@code to}, inclusive,
+     * ordered by start date.
+     *
+     * @param from The first day of the range.
+     * @param to   The last day of the range.
+     * @return The overlapping events.
+     */
+    public List<Task> eventsOverlapping(LocalDate from, LocalDate to) {
+        List<Task> matches = new ArrayList<>();
+        collectOverlapping(events, from.toEpochDay(), to.toEpochDay(), matches);
+        return matches;
+    }
+
+    private List<Task> collect(NavigableMap<LocalDate, Set<String>> range) {
+        List<Task> matches = new ArrayList<>();
+        for (Set<String> names : range.values()) {
+            for (String name : names) {
+                matches.add(tasks.get(name));
+            }
+        }
+        return matches;
+    }
+
+    private void collectOverlapping(Node node, long from, long to, List<Task> matches) {
+        if (node == null || node.maxEnd < from) {
+            return; // nothing in this subtree ends on or after the range starts
+        }
+        collectOverlapping(node.left, from, to, matches);
+        if (node.start > to) {
+            return; // this node and its right subtree start after the range ends
+        }
+        if (node.end >= from) {
+            matches.add(tasks.get(node.name));
+        }
+        collectOverlapping(node.right, from, to, matches);
+    }
+
+    private void add(Task task) {
+        if (task instanceof Deadline deadline) {
+            deadlines.computeIfAbsent(deadline.getByTime(), date -> new LinkedHashSet<>()).add(task.getName());
+        } else if (task instanceof Event event) {
+            events = insert(events, new Node(event.getStartTime().toEpochDay(), event.getEndTime().toEpochDay(),
+                    task.getName(), priorities.nextInt()));
+        }
+    }
+
+    private void remove(Task task) {
+        if (task instanceof Deadline deadline) {
+            Set<String> names = deadlines.get(deadline.getByTime());
+            if (names != null && names.remove(task.getName()) && names.isEmpty()) {
+                deadlines.remove(deadline.getByTime());
+            }
+        } else if (task instanceof Event event) {
+            events = delete(events, event.getStartTime().toEpochDay(), event.getEndTime().toEpochDay(),
+                    task.getName());
+        }
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        int cmp = root.compareTo(node.start, node.end, node.name);
+        if (cmp == 0) {
+            return root; // already indexed
+        }
+        if (cmp > 0) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node delete(Node root, long start, long end, String name) {
+        if (root == null) {
+            return null;
+        }
+        int cmp = root.compareTo(start, end, name);
+        if (cmp > 0) {
+            root.left = delete(root.left, start, end, name);
+        } else if (cmp < 0) {
+            root.right = delete(root.right, start, end, name);
+        } else if (root.left == null) {
+            return root.right;
+        } else if (root.right == null) {
+            return root.left;
+        } else if (root.left.priority > root.right.priority) {
+            root = rotateRight(root);
+            root.right = delete(root.right, start, end, name);
+        } else {
+            root = rotateLeft(root);
+            root.left = delete(root.left, start, end, name);
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        if (previous != null) {
+            remove(previous);
+        }
+        add(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task);
+    }
+}
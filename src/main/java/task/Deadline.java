@@ -75,16 +75,20 @@ public class Deadline extends Task {
         return this.byTime;
     }
 
+    @Override
+    public Deadline copy() {
+        return new Deadline(name, description, byTime, isDone);
+    }
+
     /**
-     * Returns a string representation of the {@code Deadline} task.
+     * Builds the string representation of the {@code Deadline} task.
      * The format includes the type of task (Deadline) and the information
      * about its completion status, name, description, and deadline date.
      *
      * @return A string representation of the {@code Deadline} task.
      */
     @Override
-    public String toString() {
-        return "[D] " + super.toString() + "\n\tBy: " + byTime.getDayOfMonth() + "/"
-                + byTime.getMonth().toString().substring(0, 3) + "/" + byTime.getYear();
+    protected String render() {
+        return "[D] " + super.render() + "\n\tBy: " + formatDate(byTime);
     }
 }
@@ -117,20 +117,23 @@ public class Event extends Task {
         return endTime;
     }
 
+    @Override
+    public Event copy() {
+        return new Event(name, description, startTime, endTime, location, isDone);
+    }
+
     /**
-     * Returns a string representation of the {@code Event} task.
+     * Builds the string representation of the {@code Event} task.
      * The format includes the type of task (Event) and the information about its completion status,
      * name, description, start time, end time, and location.
      *
      * @return A string representation of the {@code Event} task.
      */
     @Override
-    public String toString() {
-        return "[E] " + super.toString()
-                + "\n\tStart Time: " + startTime.getDayOfMonth() + "/"
-                + startTime.getMonth().toString().substring(0, 3) + "/" + startTime.getYear()
-                + "\n\tEnd Time: " + endTime.getDayOfMonth() + "/"
-                + endTime.getMonth().toString().substring(0, 3) + "/" + endTime.getYear()
+    protected String render() {
+        return "[E] " + super.render()
+                + "\n\tStart Time: " + formatDate(startTime)
+                + "\n\tEnd Time: " + formatDate(endTime)
                 + "\n\tLocation: " + location;
     }
 }
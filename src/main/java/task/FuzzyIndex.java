@@ -0,0 +1,236 @@
+package task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The {@code FuzzyIndex} class finds the task names closest to a mistyped name, ignoring case, without computing
+ * the edit distance to every name.
+ * <p>
+ * The case-folded names (see {@link NameIndex#fold}) are kept in a BK-tree: every node's children are keyed by
+ * their Levenshtein distance to the node. By the triangle inequality, a name within distance {@code k} of the
+ * query can only lie under a child whose key is within {@code k} of the query's distance to the node, so a
+ * search only descends into those children and skips the rest of the tree.
+ * <p>
+ * A BK-tree cannot remove a node without rebuilding the subtree below it, so removing a name only empties its
+ * node; once empty nodes outnumber names the tree is rebuilt.
+ */
+public class FuzzyIndex implements TaskMap.Listener {
+    private static final int MIN_REBUILD_SIZE = 1024;
+    private static final Comparator<Match> ORDER = Comparator.comparingInt(Match::distance)
+            .thenComparing(Match::name);
+
+    private final TaskMap tasks;
+    private Node root;
+    private int liveCount;
+    private int emptyCount;
+    private int[] previousRow = new int[16];
+    private int[] currentRow = new int[16];
+
+    /**
+     * A task name and its edit distance to the query, ignoring case.
+     *
+     * @param name     The task name.
+     * @param distance The number of single-character insertions, deletions or substitutions between the folded
+     *                 name and the folded query.
+     */
+    public record Match(String name, int distance) {
+    }
+
+    /**
+     * A node of the BK-tree, holding every name that folds to its key.
+     */
+    private static final class Node {
+        final String key;
+        final List<String> names = new ArrayList<>(1);
+        int[] distances = new int[0];
+        Node[] children = new Node[0];
+
+        Node(String key) {
+            this.key = key;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            distances = Arrays.copyOf(distances, distances.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            distances[distances.length - 1] = distance;
+            children[children.length - 1] = child;
+        }
+    }
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    FuzzyIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        for (String name : tasks.keySet()) {
+            add(name);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns the names within the given edit distance of {@code name}, ignoring case, closest first and then in
+     * name order.
+     *
+     * @param name        The name to look up, possibly mistyped.
+     * @param maxDistance The largest edit distance to accept.
+     * @param limit       The maximum number of names to return.
+     * @return The closest names.
+     */
+    public List<Match> closest(String name, int maxDistance, int limit) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null || limit <= 0) {
+            return matches;
+        }
+        String query = NameIndex.fold(name);
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(node.key, query);
+            if (distance <= maxDistance) {
+                for (String match : node.names) {
+                    matches.add(new Match(match, distance));
+                }
+            }
+            for (int i = 0; i < node.distances.length; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        matches.sort(ORDER);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two strings, reusing the same two rows for every call.
+     */
+    private int distance(String a, String b) {
+        if (previousRow.length <= b.length()) {
+            previousRow = new int[b.length() + 1];
+            currentRow = new int[b.length() + 1];
+        }
+        int[] previous = previousRow;
+        int[] current = currentRow;
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private void add(String name) {
+        String key = NameIndex.fold(name);
+        if (root == null) {
+            root = new Node(key);
+            root.names.add(name);
+            liveCount++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(node.key, key);
+            if (distance == 0) {
+                if (!node.names.contains(name)) {
+                    if (node.names.isEmpty()) {
+                        emptyCount--;
+                    }
+                    node.names.add(name);
+                    liveCount++;
+                }
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                Node added = new Node(key);
+                added.names.add(name);
+                node.addChild(distance, added);
+                liveCount++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private void remove(String name) {
+        String key = NameIndex.fold(name);
+        Node node = root;
+        while (node != null) {
+            int distance = distance(node.key, key);
+            if (distance == 0) {
+                if (node.names.remove(name)) {
+                    liveCount--;
+                    if (node.names.isEmpty()) {
+                        emptyCount++;
+                    }
+                }
+                break;
+            }
+            node = node.child(distance);
+        }
+        if (emptyCount > MIN_REBUILD_SIZE && emptyCount > liveCount) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the tree from the names still in it, dropping the empty nodes left by removals.
+     */
+    private void rebuild() {
+        List<String> live = new ArrayList<>(liveCount);
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            live.addAll(node.names);
+            for (Node child : node.children) {
+                pending.push(child);
+            }
+        }
+        root = null;
+        liveCount = 0;
+        emptyCount = 0;
+        for (String name : live) {
+            add(name);
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        add(task.getName());
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getName());
+    }
+}
@@ -0,0 +1,96 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code NameIndex} class finds a task by name ignoring case with a single hash lookup.
+ * <p>
+ * Names are keyed by a case-folded form in which every character is upper-cased and then lower-cased, which
+ * makes two names fold to the same key exactly when {@link String#equalsIgnoreCase} considers them equal.
+ * Several tasks may share a folded key (for example {@code "Milk"} and {@code "milk"}); a lookup then prefers
+ * the one whose name matches exactly and otherwise returns the one that was indexed first.
+ */
+public class NameIndex implements TaskMap.Listener {
+    private final TaskMap tasks;
+    private final Map<String, List<String>> names = new HashMap<>();
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    NameIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        for (String name : tasks.keySet()) {
+            add(name);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns the case-folded form of a name.
+     *
+     * @param name The name to fold.
+     * @return The folded name, equal for two names exactly when they are equal ignoring case.
+     */
+    public static String fold(String name) {
+        char[] folded = new char[name.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Returns the task whose name equals the given name, ignoring case.
+     *
+     * @param name The name to look up.
+     * @return The matching task, or {@code null} if there is none.
+     */
+    public Task find(String name) {
+        List<String> candidates = names.get(fold(name));
+        if (candidates == null) {
+            return null;
+        }
+        return tasks.get(candidates.contains(name) ? name : candidates.get(0));
+    }
+
+    private void add(String name) {
+        names.merge(fold(name), List.of(name), (existing, added) -> {
+            if (existing.contains(name)) {
+                return existing;
+            }
+            List<String> merged = new ArrayList<>(existing);
+            merged.add(name);
+            return merged;
+        });
+    }
+
+    private void remove(String name) {
+        String key = fold(name);
+        List<String> candidates = names.get(key);
+        if (candidates == null) {
+            return;
+        }
+        if (candidates.size() == 1) {
+            names.remove(key, List.of(name));
+        } else {
+            List<String> remaining = new ArrayList<>(candidates);
+            remaining.remove(name);
+            names.put(key, remaining.size() == 1 ? List.of(remaining.get(0)) : remaining);
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        add(task.getName());
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getName());
+    }
+}
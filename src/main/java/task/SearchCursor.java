@@ -0,0 +1,89 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code SearchCursor} class pages through the results of a search without collecting them up front.
+ * <p>
+ * The cursor reads from one or more result iterators in turn, skipping any task an earlier iterator already
+ * returned, and only pulls as many results as the pages asked for so far need. Every result shown is numbered
+ * from 1 in the order it was shown, so the user can pick any of them with {@link #select(int)}.
+ */
+public class SearchCursor {
+    private final Iterator<Iterator<Task>> sources;
+    private final Set<String> seen = new HashSet<>();
+    private final List<Task> shown = new ArrayList<>();
+    private Iterator<Task> current;
+    private Task next;
+
+    /**
+     * Creates a cursor over the given results, read in order.
+     *
+     * @param sources The result iterators; later ones may repeat tasks from earlier ones.
+     */
+    public SearchCursor(List<Iterator<Task>> sources) {
+        this.sources = sources.iterator();
+        this.current = this.sources.hasNext() ? this.sources.next() : null;
+    }
+
+    /**
+     * Returns whether there are results that have not been shown yet.
+     *
+     * @return {@code true} if {@link #nextPage(int)} would return at least one task.
+     */
+    public boolean hasMore() {
+        while (next == null && current != null) {
+            if (current.hasNext()) {
+                Task task = current.next();
+                if (seen.add(task.getName())) {
+                    next = task;
+                }
+            } else {
+                current = sources.hasNext() ? sources.next() : null;
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * Returns up to {@code size} results that have not been shown yet.
+     *
+     * @param size The maximum number of results to return.
+     * @return The next page, which is empty once every result has been shown.
+     */
+    public List<Task> nextPage(int size) {
+        List<Task> page = new ArrayList<>();
+        while (page.size() < size && hasMore()) {
+            page.add(next);
+            next = null;
+        }
+        shown.addAll(page);
+        return page;
+    }
+
+    /**
+     * Returns the number of results shown so far.
+     *
+     * @return The number of the last result shown.
+     */
+    public int getShownCount() {
+        return shown.size();
+    }
+
+    /**
+     * Returns a result that has already been shown.
+     *
+     * @param number The number of the result, counting from 1.
+     * @return The result, or {@code null} if no result with that number has been shown.
+     */
+    public Task select(int number) {
+        if (number < 1 || number > shown.size()) {
+            return null;
+        }
+        return shown.get(number - 1);
+    }
+}
@@ -0,0 +1,79 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The {@code SortedNameIndex} class keeps the task names in sorted order, so that sorted listings are a linear
+ * walk instead of a sort on every request.
+ * <p>
+ * The names are held in a balanced tree that is updated on every add and remove, at O(log n) each. Besides the
+ * full listing, {@link #page(String, int)} returns the tasks from a given name onwards, which lets very large
+ * lists be shown a page at a time.
+ */
+public class SortedNameIndex implements TaskMap.Listener {
+    private final TaskMap tasks;
+    private final TreeSet<String> names = new TreeSet<>();
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    SortedNameIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        names.addAll(tasks.keySet());
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns the names of every task, in ascending order.
+     *
+     * @return A read-only view of the sorted names.
+     */
+    public NavigableSet<String> names() {
+        return Collections.unmodifiableNavigableSet(names);
+    }
+
+    /**
+     * Returns up to {@code limit} tasks in name order, starting at the first name not less than
+     * {@code fromName}.
+     *
+     * @param fromName The name to start at; it does not have to belong to a task.
+     * @param limit    The maximum number of tasks to return.
+     * @return The tasks in the requested range.
+     */
+    public List<Task> page(String fromName, int limit) {
+        List<Task> page = new ArrayList<>();
+        for (String name : names.tailSet(fromName, true)) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(tasks.get(name));
+        }
+        return page;
+    }
+
+    /**
+     * Returns the first name after the given one, for continuing a paged listing.
+     *
+     * @param name The last name shown.
+     * @return The next name, or {@code null} if {@code name} was the last.
+     */
+    public String nameAfter(String name) {
+        return names.higher(name);
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        names.add(task.getName());
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        names.remove(task.getName());
+    }
+}
@@ -0,0 +1,195 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code StatusIndex} class counts and lists tasks by status and type without looking at the tasks
+ * themselves.
+ * <p>
+ * Every indexed task gets a dense integer id, and each status and type has a bitset with one bit per id. A
+ * combination of filters is answered by ANDing the bitsets 64 tasks at a time, so a count costs one pass over
+ * n / 64 words however many tasks match. Ids freed by removals are handed out again to keep the bitsets dense.
+ */
+public class StatusIndex implements TaskMap.Listener {
+    private final TaskMap tasks;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[64];
+    private long[] live = new long[1];
+    private long[] done = new long[1];
+    private long[] todos = new long[1];
+    private long[] deadlines = new long[1];
+    private long[] events = new long[1];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+
+    /**
+     * A condition on a task's status or type.
+     */
+    public enum Filter {
+        DONE,
+        UNDONE,
+        TODO,
+        DEADLINE,
+        EVENT
+    }
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    StatusIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        for (Task task : tasks.values()) {
+            add(task);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns the number of tasks that pass every given filter.
+     *
+     * @param filters The filters, all of which must hold; none counts every task.
+     * @return The number of matching tasks.
+     */
+    public int count(Collection<Filter> filters) {
+        int count = 0;
+        for (int i = 0; i < words(); i++) {
+            count += Long.bitCount(match(i, filters));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the tasks that pass every given filter.
+     *
+     * @param filters The filters, all of which must hold; none lists every task.
+     * @return The matching tasks, in id order.
+     */
+    public List<Task> list(Collection<Filter> filters) {
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < words(); i++) {
+            for (long word = match(i, filters); word != 0; word &= word - 1) {
+                matches.add(tasks.get(names[i * 64 + Long.numberOfTrailingZeros(word)]));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns whether the named task passes every given filter.
+     *
+     * @param name    The task name.
+     * @param filters The filters, all of which must hold.
+     * @return {@code true} if the task is indexed and matches.
+     */
+    public boolean matches(String name, Collection<Filter> filters) {
+        Integer id = ids.get(name);
+        return id != null && (match(id >>> 6, filters) & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns the word of the bitset of tasks that pass every filter, for ids {@code 64 * i} onwards.
+     */
+    private long match(int i, Collection<Filter> filters) {
+        long word = live[i];
+        for (Filter filter : filters) {
+            word &= switch (filter) {
+            case DONE -> done[i];
+            case UNDONE -> ~done[i];
+            case TODO -> todos[i];
+            case DEADLINE -> deadlines[i];
+            case EVENT -> events[i];
+            };
+        }
+        return word;
+    }
+
+    private int words() {
+        return (nextId + 63) >>> 6;
+    }
+
+    private static void set(long[] bits, int id, boolean value) {
+        if (value) {
+            bits[id >>> 6] |= 1L << id;
+        } else {
+            bits[id >>> 6] &= ~(1L << id);
+        }
+    }
+
+    private void add(Task task) {
+        String name = task.getName();
+        Integer existing = ids.get(name);
+        int id;
+        if (existing != null) {
+            id = existing;
+        } else {
+            id = freeCount > 0 ? freeIds[--freeCount] : allocate();
+            ids.put(name, id);
+            names[id] = name;
+        }
+        set(live, id, true);
+        set(done, id, task.isDone());
+        set(todos, id, task instanceof Todo);
+        set(deadlines, id, task instanceof Deadline);
+        set(events, id, task instanceof Event);
+    }
+
+    private int allocate() {
+        int id = nextId++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        int words = words();
+        if (words > live.length) {
+            int length = Math.max(words, live.length * 2);
+            live = Arrays.copyOf(live, length);
+            done = Arrays.copyOf(done, length);
+            todos = Arrays.copyOf(todos, length);
+            deadlines = Arrays.copyOf(deadlines, length);
+            events = Arrays.copyOf(events, length);
+        }
+        return id;
+    }
+
+    private void remove(String name) {
+        Integer id = ids.remove(name);
+        if (id == null) {
+            return;
+        }
+        names[id] = null;
+        set(live, id, false);
+        set(done, id, false);
+        set(todos, id, false);
+        set(deadlines, id, false);
+        set(events, id, false);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        add(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getName());
+    }
+
+    @Override
+    public void taskStatusChanged(Task task) {
+        Integer id = ids.get(task.getName());
+        if (id != null) {
+            set(done, id, task.isDone());
+        }
+    }
+}
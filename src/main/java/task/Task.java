@@ -1,14 +1,44 @@
 package task;
 
+import java.time.LocalDate;
+import java.time.Month;
+
 /**
  * The {@code Task} class is an abstract base class that represents a generic task.
  * It provides common properties and methods for all tasks, including a name, description, and completion status.
  * Subclasses of {@code Task} should provide specific implementations for different types of tasks.
+ * <p>
+ * The text form of a task is built once by {@link #render()} and kept until the task changes, so showing or
+ * saving an unchanged task again does not allocate. Anything that changes what {@link #render()} returns must
+ * call {@link #invalidateRendering()}.
  */
 public abstract class Task {
+    /**
+     * The three-letter upper-case month names used in rendered dates, indexed by month number minus one.
+     */
+    private static final String[] MONTH_ABBREVIATIONS = new String[12];
+
+    static {
+        for (Month month : Month.values()) {
+            MONTH_ABBREVIATIONS[month.ordinal()] = month.toString().substring(0, 3);
+        }
+    }
+
     protected String name;
     protected String description;
     protected boolean isDone;
+    /**
+     * Whether the task has changed since it was last saved. Maintained by the {@link TaskMap} holding it.
+     */
+    private boolean isDirty;
+    /**
+     * The map that currently holds the task and is told when its status changes, if any.
+     */
+    private TaskMap owner;
+    /**
+     * The cached result of {@link #render()}, or {@code null} until it is next needed.
+     */
+    private String rendered;
 
     /**
      * Constructs a new {@code Task} with the specified name and description.
@@ -54,23 +84,96 @@ public abstract class Task {
      * Marks the task as done by setting the {@code isDone} flag to {@code true}.
      */
     public void markDone() {
-        this.isDone = true;
+        setDone(true);
     }
 
     /**
      * Marks the task as not done by setting the {@code isDone} flag to {@code false}.
      */
     public void markUndone() {
-        this.isDone = false;
+        setDone(false);
+    }
+
+    private void setDone(boolean isDone) {
+        if (this.isDone == isDone) {
+            return;
+        }
+        this.isDone = isDone;
+        isDirty = true;
+        invalidateRendering();
+        if (owner != null) {
+            owner.statusChanged(this);
+        }
     }
 
     /**
-     * Returns a string representation of the task, including its completion status, name, and description.
+     * Returns whether the task has changed since it was last saved.
+     *
+     * @return {@code true} if the task has unsaved changes.
+     */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    void setDirty(boolean isDirty) {
+        this.isDirty = isDirty;
+    }
+
+    TaskMap getOwner() {
+        return owner;
+    }
+
+    void setOwner(TaskMap owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Returns a new task with the same fields and completion status that belongs to no task map, so it can be
+     * read on another thread while this task keeps changing.
+     *
+     * @return A copy of the task.
+     */
+    public abstract Task copy();
+
+    /**
+     * Returns a string representation of the task, rendering it only if it has changed since it was last
+     * rendered.
      *
      * @return A string representation of the task.
      */
     @Override
-    public String toString() {
-        return String.format("[%s] %s\n\tDescription: %s", isDone ? "X" : " ", name, description);
+    public final String toString() {
+        String text = rendered;
+        if (text == null) {
+            text = render();
+            rendered = text;
+        }
+        return text;
+    }
+
+    /**
+     * Builds the string representation of the task, including its completion status, name, and description.
+     *
+     * @return A string representation of the task.
+     */
+    protected String render() {
+        return (isDone ? "[X] " : "[ ] ") + name + "\n\tDescription: " + description;
+    }
+
+    /**
+     * Discards the cached string representation, so that the next {@link #toString()} renders the task again.
+     */
+    protected void invalidateRendering() {
+        rendered = null;
+    }
+
+    /**
+     * Formats a date the way tasks show it, as day/MON/year, for example {@code 18/SEP/2024}.
+     *
+     * @param date The date to format.
+     * @return The formatted date.
+     */
+    protected static String formatDate(LocalDate date) {
+        return date.getDayOfMonth() + "/" + MONTH_ABBREVIATIONS[date.getMonthValue() - 1] + "/" + date.getYear();
     }
 }
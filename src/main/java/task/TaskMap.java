@@ -0,0 +1,426 @@
+package task;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code TaskMap} class is the task list used by the chatbot: a map from task name to {@link Task} that
+ * keeps track of which entries changed since they were last saved.
+ * <p>
+ * Every task handed out by the map (through a lookup, an iteration or {@link #put}) reports changes to its
+ * completion status back to the map, so code that marks a task done does not have to tell anyone about it.
+ * Adds, removals and status changes are coalesced per key until {@link #drainChanges()} is called, which lets
+ * the caller persist just the changed records instead of rewriting the whole list. Registered
+ * {@link Listener}s are told about every change as it happens.
+ * <p>
+ * The tasks themselves are kept in a backing map, which may be a plain {@code HashMap} or a store that loads
+ * its entries lazily. Owners are assigned on access for that reason, rather than by walking every task up
+ * front.
+ * <p>
+ * Secondary indexes over the tasks ({@link DateIndex}, {@link FuzzyIndex}, {@link NameIndex},
+ * {@link SortedNameIndex}, {@link StatusIndex}, {@link TokenIndex}, {@link TrigramIndex} and
+ * {@link UpcomingIndex}) are built the first time they are asked for and are then maintained as listeners.
+ */
+public class TaskMap extends AbstractMap<String, Task> {
+
+    /**
+     * The kinds of unsaved change a key can have.
+     */
+    public enum Change {
+        /**
+         * The key was added, or its task replaced, so the whole task has to be written.
+         */
+        ADDED,
+        /**
+         * Only the completion status of the task changed.
+         */
+        STATUS,
+        /**
+         * The key was removed.
+         */
+        REMOVED
+    }
+
+    /**
+     * Receives every change made through a {@code TaskMap}, as it happens.
+     */
+    public interface Listener {
+        /**
+         * Called after a task was put into the map.
+         *
+         * @param task     The task that was added.
+         * @param previous The task it replaced, or {@code null}.
+         */
+        default void taskAdded(Task task, Task previous) {
+        }
+
+        /**
+         * Called after a task was removed from the map.
+         *
+         * @param task The task that was removed.
+         */
+        default void taskRemoved(Task task) {
+        }
+
+        /**
+         * Called after a task in the map was marked done or undone.
+         *
+         * @param task The task whose status changed.
+         */
+        default void taskStatusChanged(Task task) {
+        }
+    }
+
+    private final Map<String, Task> tasks;
+    private final Map<String, Change> changes = new LinkedHashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private DateIndex dateIndex;
+    private FuzzyIndex fuzzyIndex;
+    private NameIndex nameIndex;
+    private SortedNameIndex sortedIndex;
+    private StatusIndex statusIndex;
+    private TokenIndex tokenIndex;
+    private TrigramIndex trigramIndex;
+    private UpcomingIndex upcomingIndex;
+
+    /**
+     * Constructs an empty task map backed by a {@code HashMap}.
+     */
+    public TaskMap() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * Constructs a task map around the given tasks. The tasks are taken as already saved, and the map is
+     * used directly rather than copied, so it must not be changed other than through this {@code TaskMap}.
+     *
+     * @param tasks The backing map from task name to task.
+     */
+    public TaskMap(Map<String, Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Registers a listener to be told about every subsequent change.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the index of deadline and event dates, building it on first use.
+     *
+     * @return The date index, kept up to date with every later change.
+     */
+    public DateIndex getDateIndex() {
+        if (dateIndex == null) {
+            dateIndex = new DateIndex(this);
+        }
+        return dateIndex;
+    }
+
+    /**
+     * Returns the bitset index of task status and type, building it on first use.
+     *
+     * @return The status index, kept up to date with every later change.
+     */
+    public StatusIndex getStatusIndex() {
+        if (statusIndex == null) {
+            statusIndex = new StatusIndex(this);
+        }
+        return statusIndex;
+    }
+
+    /**
+     * Returns the index for typo-tolerant name lookups, building it on first use.
+     *
+     * @return The fuzzy name index, kept up to date with every later change.
+     */
+    public FuzzyIndex getFuzzyIndex() {
+        if (fuzzyIndex == null) {
+            fuzzyIndex = new FuzzyIndex(this);
+        }
+        return fuzzyIndex;
+    }
+
+    /**
+     * Returns the case-insensitive name index, building it on first use.
+     *
+     * @return The name index, kept up to date with every later change.
+     */
+    public NameIndex getNameIndex() {
+        if (nameIndex == null) {
+            nameIndex = new NameIndex(this);
+        }
+        return nameIndex;
+    }
+
+    /**
+     * Returns the index of names in sorted order, building it on first use.
+     *
+     * @return The sorted name index, kept up to date with every later change.
+     */
+    public SortedNameIndex getSortedIndex() {
+        if (sortedIndex == null) {
+            sortedIndex = new SortedNameIndex(this);
+        }
+        return sortedIndex;
+    }
+
+    /**
+     * Returns the index of name tokens, building it on first use.
+     *
+     * @return The token index, kept up to date with every later change.
+     */
+    public TokenIndex getTokenIndex() {
+        if (tokenIndex == null) {
+            tokenIndex = new TokenIndex(this);
+        }
+        return tokenIndex;
+    }
+
+    /**
+     * Returns the trigram index for substring searches, building it on first use or when the requested scope
+     * differs from the one it was built with.
+     *
+     * @param isIncludingDetails Whether descriptions and event locations should be searched as well as names.
+     * @return The trigram index, kept up to date with every later change.
+     */
+    public TrigramIndex getTrigramIndex(boolean isIncludingDetails) {
+        if (trigramIndex == null || trigramIndex.isIncludingDetails() != isIncludingDetails) {
+            listeners.remove(trigramIndex);
+            trigramIndex = new TrigramIndex(this, isIncludingDetails);
+        }
+        return trigramIndex;
+    }
+
+    /**
+     * Returns the index of undone deadlines and events in date order, building it on first use.
+     *
+     * @return The upcoming index, kept up to date with every later change.
+     */
+    public UpcomingIndex getUpcomingIndex() {
+        if (upcomingIndex == null) {
+            upcomingIndex = new UpcomingIndex(this);
+        }
+        return upcomingIndex;
+    }
+
+    /**
+     * Returns the changes made since the last call, keyed by task name in the order the keys first changed,
+     * and marks every task as saved. Later changes to the same key are folded into one, so each key appears
+     * at most once.
+     *
+     * @return The unsaved changes.
+     */
+    public Map<String, Change> drainChanges() {
+        Map<String, Change> drained = new LinkedHashMap<>(changes);
+        changes.clear();
+        for (String key : drained.keySet()) {
+            Task task = tasks.get(key);
+            if (task != null) {
+                task.setDirty(false);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Returns whether any change has been made since {@link #drainChanges()} was last called.
+     *
+     * @return {@code true} if there are unsaved changes.
+     */
+    public boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    private Task adopt(Task task) {
+        if (task != null) {
+            task.setOwner(this);
+        }
+        return task;
+    }
+
+    /**
+     * Records a status change reported by a task this map handed out.
+     */
+    void statusChanged(Task task) {
+        if (tasks.get(task.getName()) != task) {
+            task.setOwner(null); // the task has been removed or replaced since
+            return;
+        }
+        changes.merge(task.getName(), Change.STATUS, (previous, change) -> previous == Change.ADDED
+                ? Change.ADDED // the add record carries the status as well
+                : change);
+        for (Listener listener : listeners) {
+            listener.taskStatusChanged(task);
+        }
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public Task get(Object key) {
+        return adopt(tasks.get(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return tasks.containsKey(key);
+    }
+
+    @Override
+    public Task put(String key, Task task) {
+        Task previous = tasks.put(key, task);
+        if (previous != null && previous != task) {
+            previous.setOwner(null);
+        }
+        adopt(task).setDirty(true);
+        changes.put(key, Change.ADDED);
+        for (Listener listener : listeners) {
+            listener.taskAdded(task, previous);
+        }
+        return previous;
+    }
+
+    @Override
+    public Task remove(Object key) {
+        Task removed = tasks.remove(key);
+        if (removed != null) {
+            removed.setOwner(null);
+            changes.put((String) key, Change.REMOVED);
+            for (Listener listener : listeners) {
+                listener.taskRemoved(removed);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        List<String> keys = new ArrayList<>(tasks.keySet());
+        for (String key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Task>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return tasks.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Task>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    /**
+     * Returns the names of the tasks, read from the backing map's own key set. Unlike iterating the entries, this
+     * does not load or decode any task in a lazily loaded store, so indexes that only need names use it.
+     *
+     * @return A view of the task names; removing a name removes its task through this map.
+     */
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return tasks.size();
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return tasks.containsKey(key);
+            }
+
+            @Override
+            public boolean remove(Object key) {
+                return TaskMap.this.remove(key) != null;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new KeyIterator();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the backing map's names, routing removals through the map.
+     */
+    private class KeyIterator implements Iterator<String> {
+        private final Iterator<String> iterator = tasks.keySet().iterator();
+        private String current;
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public String next() {
+            current = iterator.next();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            Task removed = tasks.get(current);
+            iterator.remove();
+            removed.setOwner(null);
+            changes.put(current, Change.REMOVED);
+            for (Listener listener : listeners) {
+                listener.taskRemoved(removed);
+            }
+        }
+    }
+
+    /**
+     * Iterates over the backing map, adopting each task and routing removals through the map. Entries are
+     * read-only, so a task can only be replaced through {@link #put} and is tracked like any other add.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Task>> {
+        private final Iterator<Map.Entry<String, Task>> iterator = tasks.entrySet().iterator();
+        private Map.Entry<String, Task> current;
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Task> next() {
+            current = iterator.next();
+            adopt(current.getValue());
+            return new AbstractMap.SimpleImmutableEntry<>(current);
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            Task removed = current.getValue();
+            removed.setOwner(null);
+            changes.put(current.getKey(), Change.REMOVED);
+            for (Listener listener : listeners) {
+                listener.taskRemoved(removed);
+            }
+        }
+    }
+}
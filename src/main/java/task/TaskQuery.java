@@ -0,0 +1,284 @@
+package task;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The {@code TaskQuery} class is a compiled filter over tasks, written as space-separated terms that must all
+ * hold, for example {@code type:deadline done:false due<2026-12-01 name~report}.
+ * <p>
+ * The terms are:
+ * <ul>
+ *     <li>{@code type:todo}, {@code type:deadline} or {@code type:event}</li>
+ *     <li>{@code done:true} or {@code done:false}</li>
+ *     <li>{@code due<date}, {@code due<=date}, {@code due=date}, {@code due>=date} or {@code due>date}, which
+ *     only deadlines can match; dates are entered as yyyy-mm-dd</li>
+ *     <li>{@code name~text}, which matches names containing the text ignoring case; text containing spaces is
+ *     put in double quotes</li>
+ * </ul>
+ * Each term compiles to a predicate. {@link #plan} then picks the most selective index that can produce
+ * candidates for some of the terms, using each index's own estimate of how many tasks it would return, and
+ * applies the terms that index does not answer exactly to each candidate as residual predicates. The plan can be
+ * run or explained.
+ */
+public class TaskQuery {
+    private final List<Term> terms = new ArrayList<>();
+    private final List<Term> nameTerms = new ArrayList<>();
+    private final List<Term> statusTerms = new ArrayList<>();
+    private final List<Term> dueTerms = new ArrayList<>();
+    private final EnumSet<StatusIndex.Filter> statusFilters = EnumSet.noneOf(StatusIndex.Filter.class);
+    private LocalDate dueFrom = LocalDate.MIN;
+    private LocalDate dueTo = LocalDate.MAX;
+
+    /**
+     * One term of the query and the predicate it compiled to.
+     *
+     * @param text      The term as written, used by explain.
+     * @param predicate The test a task has to pass.
+     */
+    private record Term(String text, Predicate<Task> predicate) {
+    }
+
+    /**
+     * A way of producing candidate tasks, with the number it expects to produce and the terms it answers exactly.
+     */
+    private record Access(String description, int estimate, List<Term> covered,
+                          Supplier<Collection<Task>> candidates) {
+    }
+
+    /**
+     * A chosen way of running a query: an index to take candidates from and the terms left to check on each.
+     */
+    public static final class Plan {
+        private final Access access;
+        private final List<Access> rejected;
+        private final List<Term> residual;
+
+        private Plan(Access access, List<Access> rejected, List<Term> residual) {
+            this.access = access;
+            this.rejected = rejected;
+            this.residual = residual;
+        }
+
+        /**
+         * Runs the plan.
+         *
+         * @return The tasks passing every term of the query, in the order the chosen index produces them.
+         */
+        public List<Task> execute() {
+            List<Task> matches = new ArrayList<>();
+            for (Task task : access.candidates().get()) {
+                if (task != null && passesResidual(task)) {
+                    matches.add(task);
+                }
+            }
+            return matches;
+        }
+
+        private boolean passesResidual(Task task) {
+            for (Term term : residual) {
+                if (!term.predicate().test(task)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Describes the plan without running it.
+         *
+         * @return The chosen index and its estimate, the other indexes considered, and the residual terms.
+         */
+        public String explain() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("access: ").append(access.description()).append(" (~").append(access.estimate())
+                    .append(" candidates)\n");
+            for (Access other : rejected) {
+                sb.append("rejected: ").append(other.description()).append(" (~").append(other.estimate())
+                        .append(" candidates)\n");
+            }
+            sb.append("residual:");
+            if (residual.isEmpty()) {
+                sb.append(" none");
+            }
+            for (Term term : residual) {
+                sb.append(' ').append(term.text());
+            }
+            return sb.toString();
+        }
+    }
+
+    private TaskQuery() {
+    }
+
+    /**
+     * Compiles a query.
+     *
+     * @param text The query, as space-separated terms.
+     * @return The compiled query.
+     * @throws IllegalArgumentException If a term is not understood; the message names the term.
+     */
+    public static TaskQuery parse(String text) {
+        TaskQuery query = new TaskQuery();
+        for (String term : split(text)) {
+            query.addTerm(term);
+        }
+        if (query.terms.isEmpty()) {
+            throw new IllegalArgumentException("empty query");
+        }
+        return query;
+    }
+
+    /**
+     * Splits a query at spaces outside double quotes, removing the quotes.
+     */
+    private static List<String> split(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (Character.isWhitespace(c) && !isQuoted) {
+                if (word.length() > 0) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+            } else {
+                word.append(c);
+            }
+        }
+        if (isQuoted) {
+            throw new IllegalArgumentException("unclosed quote");
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private void addTerm(String text) {
+        if (text.startsWith("name~") && text.length() > "name~".length()) {
+            String part = text.substring("name~".length()).toLowerCase();
+            add(nameTerms, new Term(text, task -> task.getName().toLowerCase().contains(part)));
+        } else if (text.startsWith("type:")) {
+            addTypeTerm(text, text.substring("type:".length()));
+        } else if (text.equals("done:true")) {
+            statusFilters.add(StatusIndex.Filter.DONE);
+            add(statusTerms, new Term(text, Task::isDone));
+        } else if (text.equals("done:false")) {
+            statusFilters.add(StatusIndex.Filter.UNDONE);
+            add(statusTerms, new Term(text, task -> !task.isDone()));
+        } else if (text.startsWith("due")) {
+            addDueTerm(text);
+        } else {
+            throw new IllegalArgumentException("unknown term " + text);
+        }
+    }
+
+    private void addTypeTerm(String text, String type) {
+        switch (type.endsWith("s") ? type.substring(0, type.length() - 1) : type) {
+        case "todo" -> {
+            statusFilters.add(StatusIndex.Filter.TODO);
+            add(statusTerms, new Term(text, task -> task instanceof Todo));
+        }
+        case "deadline" -> {
+            statusFilters.add(StatusIndex.Filter.DEADLINE);
+            add(statusTerms, new Term(text, task -> task instanceof Deadline));
+        }
+        case "event" -> {
+            statusFilters.add(StatusIndex.Filter.EVENT);
+            add(statusTerms, new Term(text, task -> task instanceof Event));
+        }
+        default -> throw new IllegalArgumentException("unknown type in " + text);
+        }
+    }
+
+    private void addDueTerm(String text) {
+        String operator = text.startsWith("due<=") || text.startsWith("due>=") ? text.substring(3, 5)
+                : text.length() > 3 ? text.substring(3, 4) : "";
+        LocalDate date;
+        try {
+            date = LocalDate.parse(text.substring(3 + operator.length()));
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid date in " + text);
+        }
+        LocalDate from = switch (operator) {
+        case "=", ">=" -> date;
+        case ">" -> date.plusDays(1);
+        case "<", "<=" -> LocalDate.MIN;
+        default -> throw new IllegalArgumentException("unknown comparison in " + text);
+        };
+        LocalDate to = switch (operator) {
+        case "=", "<=" -> date;
+        case "<" -> date.minusDays(1);
+        default -> LocalDate.MAX;
+        };
+        dueFrom = from.isAfter(dueFrom) ? from : dueFrom;
+        dueTo = to.isBefore(dueTo) ? to : dueTo;
+        add(dueTerms, new Term(text, task -> task instanceof Deadline deadline
+                && !deadline.getByTime().isBefore(from) && !deadline.getByTime().isAfter(to)));
+    }
+
+    private void add(List<Term> group, Term term) {
+        group.add(term);
+        terms.add(term);
+    }
+
+    /**
+     * Chooses how to run the query against the given tasks, taking candidates from whichever index expects to
+     * return the fewest: the trigram index for a name term, the date index for due terms, the status index for
+     * type and done terms, or a scan of every task if no index applies.
+     *
+     * @param tasks              The tasks to query.
+     * @param isSearchingDetails Whether the trigram index in use also covers descriptions and locations, in which
+     *                           case its candidates are a superset of the name matches.
+     * @return The plan, which reflects the index sizes at the time it was made.
+     */
+    public Plan plan(TaskMap tasks, boolean isSearchingDetails) {
+        List<Access> options = new ArrayList<>();
+        options.add(new Access("scan of all tasks", tasks.size(), List.of(), tasks::values));
+        for (Term term : nameTerms) {
+            String part = term.text().substring("name~".length()).toLowerCase();
+            TrigramIndex index = tasks.getTrigramIndex(isSearchingDetails);
+            options.add(new Access("trigram index on " + term.text(), index.estimate(part),
+                    isSearchingDetails ? List.of() : List.of(term), () -> index.search(part)));
+        }
+        if (!dueTerms.isEmpty()) {
+            DateIndex index = tasks.getDateIndex();
+            options.add(new Access("date index on " + describe(dueTerms), index.countDueBetween(dueFrom, dueTo),
+                    dueTerms, () -> index.dueBetween(dueFrom, dueTo)));
+        }
+        if (!statusTerms.isEmpty()) {
+            StatusIndex index = tasks.getStatusIndex();
+            options.add(new Access("status index on " + describe(statusTerms), index.count(statusFilters),
+                    statusTerms, () -> index.list(statusFilters)));
+        }
+        Access best = options.get(0);
+        for (Access option : options) {
+            if (option.estimate() < best.estimate()) {
+                best = option;
+            }
+        }
+        List<Access> rejected = new ArrayList<>(options);
+        rejected.remove(best);
+        List<Term> residual = new ArrayList<>(terms);
+        residual.removeAll(best.covered());
+        return new Plan(best, rejected, residual);
+    }
+
+    private static String describe(List<Term> group) {
+        StringBuilder sb = new StringBuilder();
+        for (Term term : group) {
+            sb.append(sb.length() == 0 ? "" : " ").append(term.text());
+        }
+        return sb.toString();
+    }
+}
@@ -62,15 +62,20 @@ public class Todo extends Task {
         return new Todo(name, description);
     }
 
+    @Override
+    public Todo copy() {
+        return new Todo(name, description, isDone);
+    }
+
     /**
-     * Returns a string representation of the {@code Todo} task.
+     * Builds the string representation of the {@code Todo} task.
      * The format includes the type of task (Todo) and the information
      * about its completion status, name, and description.
      *
      * @return A string representation of the {@code Todo} task.
      */
     @Override
-    public String toString() {
-        return "[T] " + super.toString();
+    protected String render() {
+        return "[T] " + super.render();
     }
 }
@@ -0,0 +1,163 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The {@code TokenIndex} class is an inverted index from the lower-case words of task names to the names of the
+ * tasks containing them.
+ * <p>
+ * A name is split into tokens at every character that is not a letter or digit, after being lower-cased the
+ * same way {@code find} lower-cases it. The index is built once from a {@link TaskMap} and then kept up to date
+ * as a {@link TaskMap.Listener}, so a keyword lookup costs about as much as the number of tasks it returns.
+ * <p>
+ * The index stores names rather than tasks, so it does not keep lazily loaded tasks from being evicted.
+ */
+public class TokenIndex implements TaskMap.Listener {
+    private final TaskMap tasks;
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    TokenIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        for (String name : tasks.keySet()) {
+            add(name);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Splits a name into its lower-case tokens.
+     *
+     * @param name The task name, or a query.
+     * @return The distinct tokens, in the order they first appear.
+     */
+    public static Set<String> tokenize(String name) {
+        String lower = name.toLowerCase();
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean isTokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (isTokenChar && start < 0) {
+                start = i;
+            } else if (!isTokenChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the names of the tasks whose name contains the given token.
+     *
+     * @param token A lower-case token.
+     * @return The matching names, in the order they were indexed. The set must not be modified.
+     */
+    public Set<String> lookup(String token) {
+        return Collections.unmodifiableSet(postings.getOrDefault(token, Collections.emptySet()));
+    }
+
+    /**
+     * Returns the tasks whose lower-cased name contains {@code query} and also contains every token of the
+     * query as a whole word. Only tasks sharing the query's rarest token are examined.
+     * <p>
+     * This is a subset of the substring matches: a query that only matches part of a word (such as
+     * {@code "milk"} in {@code "buttermilk"}) is not found here.
+     *
+     * @param query The text to search for.
+     * @return The matching tasks, which may be empty.
+     */
+    public List<Task> search(String query) {
+        List<Task> matches = new ArrayList<>();
+        matches(query).forEachRemaining(matches::add);
+        return matches;
+    }
+
+    /**
+     * Returns the same tasks as {@link #search(String)}, but checks each candidate only when the iterator
+     * reaches it. The candidate names are fixed when this method is called.
+     *
+     * @param query The text to search for.
+     * @return An iterator over the matching tasks.
+     */
+    public Iterator<Task> matches(String query) {
+        Set<String> smallest = null;
+        for (String token : tokenize(query)) {
+            Set<String> names = postings.get(token);
+            if (names == null) {
+                return Collections.emptyIterator();
+            }
+            if (smallest == null || names.size() < smallest.size()) {
+                smallest = names;
+            }
+        }
+        if (smallest == null) {
+            return Collections.emptyIterator();
+        }
+        String[] candidates = smallest.toArray(new String[0]);
+        return new Iterator<>() {
+            private int index = 0;
+            private Task next = null;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && index < candidates.length) {
+                    String name = candidates[index++];
+                    if (name.toLowerCase().contains(query)) {
+                        next = tasks.get(name);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next;
+                next = null;
+                return task;
+            }
+        };
+    }
+
+    private void add(String name) {
+        for (String token : tokenize(name)) {
+            postings.computeIfAbsent(token, t -> new LinkedHashSet<>()).add(name);
+        }
+    }
+
+    private void remove(String name) {
+        for (String token : tokenize(name)) {
+            Set<String> names = postings.get(token);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        if (previous == null) {
+            add(task.getName());
+        }
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getName());
+    }
+}
@@ -0,0 +1,298 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code TrigramIndex} class answers "contains" searches over task names, and optionally over descriptions
+ * and event locations, without scanning every task.
+ * <p>
+ * Each indexed task gets a small integer id, and every run of three characters (trigram) in its lower-cased
+ * text gets a posting list of the ids whose text contains it. Ids are handed out in increasing order and never
+ * reused, so posting lists stay sorted and can be intersected with binary searches. A search intersects the
+ * posting lists of the query's trigrams, starting from the shortest, and then verifies each remaining
+ * candidate with the same lower-case {@code contains} test {@code find} has always used, so the results are
+ * exactly the substring matches. Queries shorter than three characters have no trigrams and are verified
+ * against every indexed task.
+ * <p>
+ * Removed tasks leave a hole in the id space; once holes outnumber live tasks the index is rebuilt.
+ * <p>
+ * An index over names alone is built and rebuilt from the key set of the map, so over a lazily loaded map it
+ * loads no task until a search verifies a candidate.
+ */
+public class TrigramIndex implements TaskMap.Listener {
+    private static final int MIN_REBUILD_SIZE = 1024;
+
+    private final TaskMap tasks;
+    private final boolean isIncludingDetails;
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[16];
+    private int nextId;
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks              The task map to index.
+     * @param isIncludingDetails Whether descriptions and event locations are searched as well as names.
+     */
+    TrigramIndex(TaskMap tasks, boolean isIncludingDetails) {
+        this.tasks = tasks;
+        this.isIncludingDetails = isIncludingDetails;
+        if (isIncludingDetails) {
+            for (Task task : tasks.values()) {
+                add(task.getName(), task);
+            }
+        } else {
+            for (String name : tasks.keySet()) {
+                add(name, null);
+            }
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns whether descriptions and event locations are indexed as well as names.
+     *
+     * @return {@code true} if details are searched.
+     */
+    public boolean isIncludingDetails() {
+        return isIncludingDetails;
+    }
+
+    /**
+     * Returns every task whose lower-cased name (or, if details are included, description or location) contains
+     * the query, in the order the tasks were indexed.
+     *
+     * @param query The text to search for, matched as is against the lower-cased text.
+     * @return The matching tasks, which may be empty.
+     */
+    public List<Task> search(String query) {
+        List<Task> matches = new ArrayList<>();
+        matches(query).forEachRemaining(matches::add);
+        return matches;
+    }
+
+    /**
+     * Returns the same tasks as {@link #search(String)}, but verifies and returns each candidate only when the
+     * iterator reaches it. The candidate ids are fixed when this method is called.
+     *
+     * @param query The text to search for, matched as is against the lower-cased text.
+     * @return An iterator over the matching tasks.
+     */
+    public Iterator<Task> matches(String query) {
+        int[] candidates = candidates(query);
+        return new Iterator<>() {
+            private int index = 0;
+            private Task next = null;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && index < candidates.length) {
+                    next = verify(candidates[index++], query);
+                }
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next;
+                next = null;
+                return task;
+            }
+        };
+    }
+
+    /**
+     * Returns an upper bound on the number of tasks {@link #search(String)} would return, from the length of the
+     * shortest posting list of the query's trigrams.
+     *
+     * @param query The text to search for.
+     * @return The upper bound, which is the number of indexed ids for a query without trigrams.
+     */
+    public int estimate(String query) {
+        int estimate = nextId;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            IntList list = postings.get(trigram(query, i));
+            if (list == null) {
+                return 0;
+            }
+            estimate = Math.min(estimate, list.size);
+        }
+        return estimate;
+    }
+
+    /**
+     * Intersects the posting lists of the query's trigrams, starting from the shortest, or returns every id for
+     * a query too short to have trigrams.
+     */
+    private int[] candidates(String query) {
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            IntList list = postings.get(trigram(query, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            int[] all = new int[nextId];
+            for (int id = 0; id < nextId; id++) {
+                all[id] = id;
+            }
+            return all;
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        IntList first = lists.get(0);
+        int[] candidates = Arrays.copyOf(first.values, first.size);
+        int count = first.size;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            IntList list = lists.get(l);
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (Arrays.binarySearch(list.values, 0, list.size, candidates[i]) >= 0) {
+                    candidates[kept++] = candidates[i];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Returns the task with the given id if its text contains the query, or {@code null}.
+     */
+    private Task verify(int id, String query) {
+        String name = names[id];
+        if (name == null) {
+            return null; // removed
+        }
+        if (name.toLowerCase().contains(query)) {
+            return tasks.get(name);
+        }
+        if (isIncludingDetails) {
+            Task task = tasks.get(name);
+            if (task != null && detailsOf(task).toLowerCase().contains(query)) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private static String detailsOf(Task task) {
+        return task instanceof Event event
+                ? task.getDescription() + "\n" + event.getLocation()
+                : task.getDescription();
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    /**
+     * Indexes a task under the given name, also indexing its details if they are searched.
+     *
+     * @param name The task name.
+     * @param task The task, which is only read if details are indexed and may otherwise be {@code null}.
+     */
+    private void add(String name, Task task) {
+        if (ids.containsKey(name)) {
+            return;
+        }
+        int id = nextId++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = name;
+        ids.put(name, id);
+        addTrigrams(name.toLowerCase(), id);
+        if (isIncludingDetails) {
+            // Indexed separately from the name so that no trigram spans the two fields
+            addTrigrams(task.getDescription().toLowerCase(), id);
+            if (task instanceof Event event) {
+                addTrigrams(event.getLocation().toLowerCase(), id);
+            }
+        }
+    }
+
+    private void addTrigrams(String text, int id) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), t -> new IntList()).addIfLast(id);
+        }
+    }
+
+    private void remove(String name) {
+        Integer id = ids.remove(name);
+        if (id == null) {
+            return;
+        }
+        names[id] = null;
+        int dead = nextId - ids.size();
+        if (dead > MIN_REBUILD_SIZE && dead > ids.size()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reassigns ids to the live tasks, dropping the holes left by removals.
+     */
+    private void rebuild() {
+        List<String> live = new ArrayList<>();
+        for (int id = 0; id < nextId; id++) {
+            if (names[id] != null) {
+                live.add(names[id]);
+            }
+        }
+        postings.clear();
+        ids.clear();
+        names = new String[Math.max(16, live.size())];
+        nextId = 0;
+        for (String name : live) {
+            add(name, isIncludingDetails ? tasks.get(name) : null);
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        if (previous != null) {
+            remove(previous.getName()); // the replacement may have different details
+        }
+        add(task.getName(), task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task.getName());
+    }
+
+    /**
+     * A growable, sorted list of ids.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        /**
+         * Appends the id unless it is already the last element, which is where a repeated trigram of the same
+         * text would put it.
+         */
+        void addIfLast(int id) {
+            if (size > 0 && values[size - 1] == id) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The {@code UpcomingIndex} class keeps every undone deadline and event ordered by date, so that the next K of
+ * them can be read off in O(log n + K) time without looking at the rest of the list.
+ * <p>
+ * A deadline is ordered by its due date and an event by its end date; ties are broken by name. Keying events by
+ * their last day means an event that has already started but not yet ended still counts as upcoming, and is
+ * listed by when it finishes. Tasks enter the index when they are added or marked undone, and leave it when they
+ * are removed or marked done.
+ */
+public class UpcomingIndex implements TaskMap.Listener {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::day).thenComparing(Entry::name);
+
+    private final TaskMap tasks;
+    private final TreeSet<Entry> undone = new TreeSet<>(ORDER);
+
+    /**
+     * An undone task and the day it is next due.
+     */
+    private record Entry(long day, String name) {
+    }
+
+    /**
+     * Builds the index over every task currently in the map and registers it for later changes.
+     *
+     * @param tasks The task map to index.
+     */
+    UpcomingIndex(TaskMap tasks) {
+        this.tasks = tasks;
+        for (Task task : tasks.values()) {
+            add(task);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Returns up to {@code count} undone deadlines due on or after the given day and undone events ending on or
+     * after it, earliest first.
+     *
+     * @param from  The first day to include, usually today.
+     * @param count The maximum number of tasks to return.
+     * @return The upcoming tasks.
+     */
+    public List<Task> next(LocalDate from, int count) {
+        List<Task> upcoming = new ArrayList<>();
+        for (Entry entry : undone.tailSet(new Entry(from.toEpochDay(), ""), true)) {
+            if (upcoming.size() == count) {
+                break;
+            }
+            upcoming.add(tasks.get(entry.name()));
+        }
+        return upcoming;
+    }
+
+    private static Entry entryOf(Task task) {
+        if (task instanceof Deadline deadline) {
+            return new Entry(deadline.getByTime().toEpochDay(), task.getName());
+        } else if (task instanceof Event event) {
+            return new Entry(event.getEndTime().toEpochDay(), task.getName());
+        }
+        return null;
+    }
+
+    private void add(Task task) {
+        Entry entry = entryOf(task);
+        if (entry != null && !task.isDone()) {
+            undone.add(entry);
+        }
+    }
+
+    private void remove(Task task) {
+        Entry entry = entryOf(task);
+        if (entry != null) {
+            undone.remove(entry);
+        }
+    }
+
+    @Override
+    public void taskAdded(Task task, Task previous) {
+        if (previous != null) {
+            remove(previous);
+        }
+        add(task);
+    }
+
+    @Override
+    public void taskRemoved(Task task) {
+        remove(task);
+    }
+
+    @Override
+    public void taskStatusChanged(Task task) {
+        if (task.isDone()) {
+            remove(task);
+        } else {
+            add(task);
+        }
+    }
+}
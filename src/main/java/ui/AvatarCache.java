@@ -0,0 +1,63 @@
+package ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.scene.image.Image;
+
+/**
+ * The {@code AvatarCache} class decodes each profile image once and shares it between every message that shows
+ * it.
+ * <p>
+ * Images are decoded straight to {@value #AVATAR_SIZE}x{@value #AVATAR_SIZE} pixels, the size they are shown at,
+ * so the cache holds a small bitmap per avatar rather than the full-size JPEG.
+ */
+public final class AvatarCache {
+    /**
+     * The width and height, in pixels, avatars are decoded and shown at.
+     */
+    public static final int AVATAR_SIZE = 80;
+    /**
+     * The resource path of the image shown beside the user's messages.
+     */
+    public static final String USER_AVATAR = "/ui/user.jpg";
+    /**
+     * The resource path of the image shown beside the bot's messages.
+     */
+    public static final String BOT_AVATAR = "/ui/sigmaOpp.jpg";
+
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    private AvatarCache() {
+    }
+
+    /**
+     * Returns the avatar stored at the given resource path, decoding it on first use.
+     *
+     * @param resource The resource path of the image.
+     * @return The shared, decoded image.
+     */
+    public static Image get(String resource) {
+        return IMAGES.computeIfAbsent(resource, AvatarCache::load);
+    }
+
+    /**
+     * Decodes an avatar at its display size, without caching it.
+     *
+     * @param resource The resource path of the image.
+     * @return The decoded image.
+     */
+    static Image load(String resource) {
+        try (InputStream in = AvatarCache.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("no image at " + resource);
+            }
+            return new Image(in, AVATAR_SIZE, AVATAR_SIZE, false, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,29 +1,49 @@
 package ui;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.HBox;
-import javafx.scene.layout.VBox;
 import logic.ChatBotLogic;
 
 /**
  * The {@code ChatBotController} class is responsible for handling the user interface interactions
  * and integrating the chatbot's logic with the JavaFX UI components.
  * It processes user input, displays messages in the chat area, and manages communication with the chatbot logic.
+ * <p>
+ * The chat area is a {@code ListView} of {@link ChatMessage}s drawn by reusable {@link ChatMessageCell}s, so only
+ * the visible messages have nodes in the scene graph.
+ * <p>
+ * Commands run on a single background thread rather than on the JavaFX thread, so loading, saving and long
+ * listings never freeze the window. The chatbot logic is created and used only on that thread, which also runs
+ * commands strictly in the order they were sent. Replies are posted back to the JavaFX thread with
+ * {@link Platform#runLater}, and a busy indicator shows while any command is still running.
  */
 public class ChatBotController {
 
     // FXML fields linked to UI elements
     @FXML
-    private VBox chatArea;
+    private ListView<ChatMessage> chatArea;
     @FXML
     private TextField inputField;
+    @FXML
+    private ProgressIndicator busyIndicator;
 
-    // Instance of the chatbot logic
+    // Instance of the chatbot logic, only touched on the command thread
     private ChatBotLogic chatBotLogic;
+    // Runs commands one at a time, in the order they were sent
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sigmabot-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The number of commands sent but not yet answered, only touched on the JavaFX thread
+    private int pendingCommands = 0;
 
     /**
      * Initializes the controller and sets up the chatbot logic.
@@ -31,7 +51,12 @@ public class ChatBotController {
      */
     @FXML
     public void initialize() {
-        chatBotLogic = new ChatBotLogic(); // Initialize the chatbot logic
+        chatArea.setCellFactory(list -> new ChatMessageCell());
+        // Loading the task list reads the storage file, so it runs on the command thread like every command
+        runCommand(() -> {
+            chatBotLogic = new ChatBotLogic(); // Initialize the chatbot logic
+            return null;
+        });
     }
 
     /**
@@ -45,17 +70,42 @@ public class ChatBotController {
             // Display user message in the chat area
             addChatMessage(userMessage, true);
 
-            // Process the user's message and get the bot's response
-            String botResponse = chatBotLogic.readInput(userMessage);
-
-            // Display the bot's response in the chat area
-            addChatMessage(botResponse, false);
+            // Process the user's message on the command thread; the response is displayed when it is ready
+            runCommand(() -> chatBotLogic.readInput(userMessage));
 
             // Clear the input field after sending
             inputField.clear();
         }
     }
 
+    /**
+     * Queues work for the command thread and shows the busy indicator until it is done.
+     * Called on the JavaFX thread.
+     *
+     * @param command Produces the bot's response, or {@code null} if there is nothing to display.
+     */
+    private void runCommand(Supplier<String> command) {
+        pendingCommands++;
+        busyIndicator.setVisible(true);
+        commandExecutor.execute(() -> {
+            String botResponse;
+            try {
+                botResponse = command.get();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                botResponse = "Something went wrong: " + e.getMessage();
+            }
+            String response = botResponse;
+            Platform.runLater(() -> {
+                if (response != null) {
+                    addChatMessage(response, false); // Display the bot's response in the chat area
+                }
+                pendingCommands--;
+                busyIndicator.setVisible(pendingCommands > 0);
+            });
+        });
+    }
+
     /**
      * Adds a message bubble to the chat area.
      * The message bubble appears on the right for user messages and on the left for bot responses.
@@ -64,30 +114,7 @@ public class ChatBotController {
      * @param isUser  True if it's a user's message, false for the bot's message.
      */
     private void addChatMessage(String message, boolean isUser) {
-        HBox messageBox = new HBox(10); // Create a horizontal box with spacing
-        // Load the appropriate profile image based on whether the message is from the user or bot
-        ImageView pfp = new ImageView(new Image(getClass()
-                .getResourceAsStream(isUser ? "/ui/user.jpg" : "/ui/sigmaOpp.jpg")));
-        pfp.setFitWidth(80);
-        pfp.setFitHeight(80);
-
-        // Create a label to display the message
-        Label messageLabel = new Label(message);
-        messageLabel.setWrapText(true);
-        messageLabel.setMaxWidth(250); // Set maximum width for the message label
-        // Set the background color and padding for the message bubble
-        messageLabel.setStyle("-fx-background-radius: 15px; -fx-padding: 10; -fx-background-color: "
-                + (isUser ? "#DCF8C6;" : "#E3E3E3;"));
-
-        // Align the message box to the right for user messages, and left for bot responses
-        if (isUser) {
-            messageBox.setStyle("-fx-alignment: top-right;");
-            messageBox.getChildren().addAll(messageLabel, pfp); // Add label and profile image to the box
-        } else {
-            messageBox.setStyle("-fx-alignment: top-left;");
-            messageBox.getChildren().addAll(pfp, messageLabel); // Add profile image and label to the box
-        }
-        // Add the message box to the chat area (VBox)
-        chatArea.getChildren().add(messageBox);
+        chatArea.getItems().add(new ChatMessage(message, isUser));
+        chatArea.scrollTo(chatArea.getItems().size() - 1); // keep the newest message in view
     }
 }
@@ -0,0 +1,10 @@
+package ui;
+
+/**
+ * The {@code ChatMessage} record is one entry of the chat transcript.
+ *
+ * @param text   The message content.
+ * @param isUser True if it's a user's message, false for the bot's message.
+ */
+public record ChatMessage(String text, boolean isUser) {
+}
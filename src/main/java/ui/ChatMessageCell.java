@@ -0,0 +1,63 @@
+package ui;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+/**
+ * The {@code ChatMessageCell} class displays one {@link ChatMessage} as a message bubble in the chat transcript.
+ * <p>
+ * The transcript is a {@code ListView}, which only creates enough cells to fill the visible rows and reuses them
+ * as the user scrolls. Each cell therefore builds its bubble once and only swaps the text, profile image and
+ * alignment when it is given a different message, so the scene graph stays the same size however long the
+ * conversation gets. The profile images come from the {@link AvatarCache}, so every cell shares the same two
+ * decoded bitmaps.
+ */
+public class ChatMessageCell extends ListCell<ChatMessage> {
+    private final HBox messageBox = new HBox(10);
+    private final Label messageLabel = new Label();
+    private final ImageView pfp = new ImageView();
+
+    /**
+     * Creates an empty cell, to be filled in by the list view.
+     */
+    public ChatMessageCell() {
+        pfp.setFitWidth(AvatarCache.AVATAR_SIZE);
+        pfp.setFitHeight(AvatarCache.AVATAR_SIZE);
+        messageLabel.setWrapText(true);
+        messageLabel.setMaxWidth(250); // Set maximum width for the message label
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setPrefWidth(0); // let the list view decide the width, so long messages wrap instead of scrolling
+        setStyle("-fx-background-color: transparent;");
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        boolean isUser = message.isUser();
+        messageLabel.setText(message.text());
+        // Set the background color and padding for the message bubble
+        messageLabel.setStyle("-fx-background-radius: 15px; -fx-padding: 10; -fx-background-color: "
+                + (isUser ? "#DCF8C6;" : "#E3E3E3;"));
+        pfp.setImage(AvatarCache.get(isUser ? AvatarCache.USER_AVATAR : AvatarCache.BOT_AVATAR));
+
+        // Align the message box to the right for user messages, and left for bot responses. The cell only shows
+        // its graphic, at the graphic's preferred width, so it is the cell that places the box on its side.
+        setAlignment(isUser ? Pos.TOP_RIGHT : Pos.TOP_LEFT);
+        if (isUser) {
+            messageBox.setStyle("-fx-alignment: top-right;");
+            messageBox.getChildren().setAll(messageLabel, pfp);
+        } else {
+            messageBox.setStyle("-fx-alignment: top-left;");
+            messageBox.getChildren().setAll(pfp, messageLabel);
+        }
+        setGraphic(messageBox);
+    }
+}
@@ -0,0 +1,276 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import task.Deadline;
+import task.Event;
+import task.Task;
+import task.Todo;
+
+/**
+ * The {@code BinaryTaskFormat} class reads and writes task snapshots in a compact binary format.
+ * <p>
+ * The file layout (all integers big-endian) is:
+ * <pre>
+ *   magic    4 bytes  "SGBT"
+ *   version  1 byte
+ *   count    int      number of records
+ *   record*  int length of the record body, followed by the body:
+ *              type   1 byte  'T', 'D' or 'E'
+ *              flags  1 byte  bit 0 set when the task is done
+ *              name, description          length-prefixed UTF-8 strings
+ *              by                         int epoch day (deadlines only)
+ *              start, end, location       int epoch days and a string (events only)
+ * </pre>
+ * Length-prefixing every record lets a reader skip over a record without decoding it.
+ * <p>
+ * Every count and length is checked against the bytes actually left in the file, so a truncated or corrupt file
+ * is reported as an {@link IOException} rather than failing with a buffer or allocation error.
+ */
+public class BinaryTaskFormat {
+    /**
+     * The magic header that identifies a binary task file.
+     */
+    static final byte[] MAGIC = {'S', 'G', 'B', 'T'};
+    /**
+     * The version of the format written by this class.
+     */
+    static final byte VERSION = 1;
+    /**
+     * The size of the file header: the magic, the version byte and the record count.
+     */
+    static final int HEADER_SIZE = MAGIC.length + 1 + Integer.BYTES;
+    /**
+     * The size of the smallest possible record: its length prefix, type, flags and two empty strings.
+     */
+    private static final int MIN_RECORD_SIZE = Integer.BYTES + 2 + 2 * Integer.BYTES;
+
+    static final byte TYPE_TODO = 'T';
+    static final byte TYPE_DEADLINE = 'D';
+    static final byte TYPE_EVENT = 'E';
+    static final byte FLAG_DONE = 1;
+
+    /**
+     * Checks whether the given bytes start with the binary magic header.
+     *
+     * @param header The first bytes of a file.
+     * @param length The number of valid bytes in {@code header}.
+     * @return {@code true} if the bytes identify a binary task file.
+     */
+    public static boolean hasMagic(byte[] header, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the given tasks to a stream in the binary format. The stream is flushed but not closed.
+     *
+     * @param taskMap A map where the key is the task name and the value is the Task object.
+     * @param output  The stream to write to.
+     * @throws IOException If an I/O error occurs while writing.
+     */
+    public static void write(Map<String, Task> taskMap, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(taskMap.size());
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        for (Task task : taskMap.values()) {
+            recordBytes.reset();
+            encodeRecord(task, record);
+            out.writeInt(recordBytes.size());
+            recordBytes.writeTo(out);
+        }
+        out.flush();
+    }
+
+    private static void encodeRecord(Task task, DataOutputStream out) throws IOException {
+        if (task instanceof Deadline) {
+            out.writeByte(TYPE_DEADLINE);
+        } else if (task instanceof Event) {
+            out.writeByte(TYPE_EVENT);
+        } else {
+            out.writeByte(TYPE_TODO);
+        }
+        out.writeByte(task.isDone() ? FLAG_DONE : 0);
+        writeString(out, task.getName());
+        writeString(out, task.getDescription());
+        if (task instanceof Deadline deadline) {
+            out.writeInt((int) deadline.getByTime().toEpochDay());
+        } else if (task instanceof Event event) {
+            out.writeInt((int) event.getStartTime().toEpochDay());
+            out.writeInt((int) event.getEndTime().toEpochDay());
+            writeString(out, event.getLocation());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads every task from a binary task file.
+     *
+     * @param filePath The path to the binary file.
+     * @return A map where the key is the task name and the value is the Task object.
+     * @throws IOException If the file cannot be read or is not a supported binary task file.
+     */
+    public static Map<String, Task> read(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = readHeader(buffer, filePath);
+            Map<String, Task> taskList = new HashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                int length = readRecordLength(buffer, buffer.position(), filePath);
+                int start = buffer.position() + Integer.BYTES;
+                Task task = decodeRecord(buffer.slice(start, length));
+                buffer.position(start + length);
+                taskList.put(task.getName(), task);
+            }
+            return taskList;
+        }
+    }
+
+    /**
+     * Validates the header at the buffer's position and advances past it.
+     *
+     * @param buffer   The buffer positioned at the start of the file.
+     * @param filePath The file being read, used in error messages.
+     * @return The number of records declared by the header.
+     * @throws IOException If the header is missing, names an unsupported version, or declares more records than
+     *                     the rest of the file can hold.
+     */
+    static int readHeader(ByteBuffer buffer, String filePath) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Truncated binary task file: " + filePath);
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!hasMagic(magic, magic.length)) {
+            throw new IOException("Not a binary task file: " + filePath);
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary task file version " + version + ": " + filePath);
+        }
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / MIN_RECORD_SIZE) {
+            throw new IOException("Corrupt record count " + count + " in binary task file: " + filePath);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the length of the record body whose length prefix is at the given offset, without moving the
+     * buffer's position.
+     *
+     * @param buffer       The buffer holding a binary task file.
+     * @param recordOffset The offset of the record's length prefix.
+     * @param filePath     The file being read, used in error messages.
+     * @return The length of the record body, which is known to fit in the buffer.
+     * @throws IOException If the file ends before the record does.
+     */
+    static int readRecordLength(ByteBuffer buffer, int recordOffset, String filePath) throws IOException {
+        int available = buffer.limit() - recordOffset - Integer.BYTES;
+        int length = available >= 0 ? buffer.getInt(recordOffset) : -1;
+        if (length < 0 || length > available) {
+            throw new IOException("Truncated record at offset " + recordOffset + " in binary task file: "
+                    + filePath);
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the record body at the buffer's position.
+     *
+     * @param buffer The buffer positioned just after a record length prefix.
+     * @return The decoded task.
+     * @throws IOException If the record has an unknown type, or its fields do not fit in the buffer.
+     */
+    static Task decodeRecord(ByteBuffer buffer) throws IOException {
+        try {
+            return decodeFields(buffer);
+        } catch (BufferUnderflowException | DateTimeException e) {
+            throw new IOException("Corrupt record in binary task file", e);
+        }
+    }
+
+    private static Task decodeFields(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        boolean isDone = (buffer.get() & FLAG_DONE) != 0;
+        String name = readString(buffer);
+        String description = readString(buffer);
+        switch (type) {
+        case TYPE_TODO -> {
+            return new Todo(name, description, isDone);
+        }
+        case TYPE_DEADLINE -> {
+            return new Deadline(name, description, LocalDate.ofEpochDay(buffer.getInt()), isDone);
+        }
+        case TYPE_EVENT -> {
+            LocalDate startTime = LocalDate.ofEpochDay(buffer.getInt());
+            LocalDate endTime = LocalDate.ofEpochDay(buffer.getInt());
+            return new Event(name, description, startTime, endTime, readString(buffer), isDone);
+        }
+        default -> throw new IOException("Unknown task type in binary task file: " + type);
+        }
+    }
+
+    /**
+     * Reads just the name of the record at the given offset, without moving the buffer's position.
+     *
+     * @param buffer       The buffer holding a binary task file.
+     * @param recordOffset The offset of the record's length prefix.
+     * @param filePath     The file being read, used in error messages.
+     * @return The name of the task.
+     * @throws IOException If the record or its name does not fit in the file.
+     */
+    static String readName(ByteBuffer buffer, int recordOffset, String filePath) throws IOException {
+        int length = readRecordLength(buffer, recordOffset, filePath);
+        ByteBuffer record = buffer.slice(recordOffset + Integer.BYTES, length);
+        if (record.remaining() < 2) {
+            throw new IOException("Corrupt record at offset " + recordOffset + " in binary task file: " + filePath);
+        }
+        record.position(2); // skip the type and flags
+        try {
+            return readString(record);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt record at offset " + recordOffset + " in binary task file: " + filePath,
+                    e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt string length " + length + " in binary task file");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,6 @@
 package util;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -17,8 +18,27 @@ import java.util.Map;
  * <p>
  * Example input: "1/FEB/2099", "01/FEB/2099"
  * Example output: "2099-02-01"
+ * <p>
+ * {@link #parseLocalDate(CharSequence)} returns the {@link LocalDate} directly. Input of exactly that shape is
+ * recognised character by character without allocating, and recently seen dates are served from a small cache,
+ * since deadlines tend to cluster on the same few days. Anything else goes through {@link #parseDate(String)},
+ * so both methods accept and reject exactly the same input.
  */
 public class DateParser {
+    /**
+     * The number of entries in the date cache. Must be a power of two.
+     */
+    private static final int CACHE_SIZE = 256;
+    /**
+     * Recently created dates, indexed by a hash of their fields. Entries are immutable, so the cache can be
+     * shared between threads without locking; a lost update only costs a cache miss.
+     */
+    private static final LocalDate[] DATE_CACHE = new LocalDate[CACHE_SIZE];
+    /**
+     * The month abbreviations packed into one int each, in calendar order, so they can be matched without
+     * creating a string.
+     */
+    private static final int[] MONTH_KEYS = new int[12];
 
     // Mapping of month abbreviations to month numbers
     private static final Map<String, String> MONTH_ABBREVIATIONS = new HashMap<>();
@@ -36,6 +56,11 @@ public class DateParser {
         MONTH_ABBREVIATIONS.put("OCT", "10");
         MONTH_ABBREVIATIONS.put("NOV", "11");
         MONTH_ABBREVIATIONS.put("DEC", "12");
+        for (Map.Entry<String, String> entry : MONTH_ABBREVIATIONS.entrySet()) {
+            String abbreviation = entry.getKey();
+            MONTH_KEYS[Integer.parseInt(entry.getValue()) - 1] =
+                    packMonth(abbreviation.charAt(0), abbreviation.charAt(1), abbreviation.charAt(2));
+        }
     }
 
     /**
@@ -87,4 +112,91 @@ public class DateParser {
         // Return the formatted date
         return formattedDate;
     }
+
+    /**
+     * Parses a date in the format "d/MMM/yyyy" or "dd/MMM/yyyy" (e.g., "1/FEB/2099" or "01/FEB/2099") straight
+     * into a {@link LocalDate}, accepting exactly the input that {@link #parseDate(String)} accepts.
+     *
+     * @param dateStr The date string in the format "d/MMM/yyyy" or "dd/MMM/yyyy".
+     * @return The parsed date.
+     * @throws IllegalArgumentException If the date string cannot be parsed due to invalid format
+     *                                  or unrecognized month abbreviation.
+     */
+    public static LocalDate parseLocalDate(CharSequence dateStr) {
+        int length = dateStr.length();
+        int dayDigits = length - 9; // "/MMM/yyyy" is nine characters
+        if (dayDigits == 1 || dayDigits == 2) {
+            int day = parseDigits(dateStr, 0, dayDigits);
+            int month = dateStr.charAt(dayDigits) == '/' && dateStr.charAt(dayDigits + 4) == '/'
+                    ? parseMonth(dateStr.charAt(dayDigits + 1), dateStr.charAt(dayDigits + 2),
+                            dateStr.charAt(dayDigits + 3))
+                    : 0;
+            int year = parseDigits(dateStr, dayDigits + 5, length);
+            if (day >= 0 && month > 0 && year >= 0) {
+                try {
+                    return cachedDate(year, month, day);
+                } catch (DateTimeException e) {
+                    throw new IllegalArgumentException("Invalid date format: " + dateStr, e);
+                }
+            }
+        }
+        // Unusual input: let the string parser accept or reject it
+        return LocalDate.parse(parseDate(dateStr.toString()));
+    }
+
+    /**
+     * Returns the date with the given fields, reusing a cached instance when the same date was requested
+     * recently.
+     *
+     * @param year  The year.
+     * @param month The month, from 1 to 12.
+     * @param day   The day of the month.
+     * @return The date.
+     * @throws DateTimeException If the fields do not form a valid date.
+     */
+    public static LocalDate cachedDate(int year, int month, int day) {
+        int key = (year << 9) | (month << 5) | day;
+        int slot = (key ^ (key >>> 7)) & (CACHE_SIZE - 1);
+        LocalDate date = DATE_CACHE[slot];
+        if (date == null || date.getYear() != year || date.getMonthValue() != month || date.getDayOfMonth() != day) {
+            date = LocalDate.of(year, month, day);
+            DATE_CACHE[slot] = date;
+        }
+        return date;
+    }
+
+    /**
+     * Parses the ASCII digits in {@code [from, to)}, or returns -1 if any character is not a digit.
+     */
+    private static int parseDigits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the month number for a three-letter ASCII abbreviation in any case, or 0 if it is not one.
+     */
+    private static int parseMonth(char c1, char c2, char c3) {
+        if (c1 > 0x7f || c2 > 0x7f || c3 > 0x7f) {
+            return 0; // leave non-ASCII case folding to String.toUpperCase in parseDate
+        }
+        int key = packMonth(Character.toUpperCase(c1), Character.toUpperCase(c2), Character.toUpperCase(c3));
+        for (int i = 0; i < MONTH_KEYS.length; i++) {
+            if (MONTH_KEYS[i] == key) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static int packMonth(char c1, char c2, char c3) {
+        return (c1 << 16) | (c2 << 8) | c3;
+    }
 }
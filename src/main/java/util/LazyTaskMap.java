@@ -0,0 +1,440 @@
+package util;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import task.Task;
+import task.TaskMap;
+
+/**
+ * The {@code LazyTaskMap} class is a task map over a snapshot file that only decodes a task when it is first
+ * accessed.
+ * <p>
+ * Opening the map memory-maps the file and builds a compact index from task name to the offset of its record:
+ * an open-addressing table made of a {@code String[]} of names and an {@code int[]} of offsets. Descriptions,
+ * dates and the {@link Task} objects themselves are only created on lookup or iteration, and are then held
+ * through {@link SoftReference}s, so the garbage collector can evict cold tasks under memory pressure and they
+ * are simply decoded again on the next access.
+ * <p>
+ * Tasks that are added, replaced or changed in place must never be evicted, because the file does not contain
+ * their current state. Added and replaced tasks are kept in a strongly referenced overlay; tasks changed in
+ * place have to be pinned there with {@link #markChanged(String)}. Removed names are remembered in a set that
+ * hides their index entries.
+ * <p>
+ * A record that is malformed beyond its header line is only detected when it is decoded, at which point an
+ * {@link IllegalArgumentException} is thrown, just as {@link ListReader} would have thrown at startup. Files
+ * must be smaller than 2 GB, the largest size a single mapping can cover.
+ * <p>
+ * The map does not map the snapshot file itself but a private copy of it. A mapping cannot be released on demand,
+ * and some platforms, Windows among them, refuse to replace a file that is mapped, so mapping the snapshot would
+ * make every later compaction fail. The copy is deleted as soon as it is mapped where the platform allows it,
+ * and otherwise on the next {@link #open}.
+ */
+public class LazyTaskMap extends AbstractMap<String, Task> {
+    /**
+     * The suffix of the private copies of snapshot files that lazy maps keep mapped.
+     */
+    public static final String MAPPED_SUFFIX = ".mapped";
+
+    private final ByteBuffer buffer;
+    private final TaskFileFormat format;
+    private final MappedTaskLoader loader = new MappedTaskLoader(1);
+
+    private String[] keys;
+    private int[] offsets;
+    private SoftReference<Task>[] cache;
+    private int indexed;
+
+    private final Map<String, Task> overlay = new HashMap<>();
+    private final Set<String> removed = new HashSet<>();
+    private int size;
+
+    private LazyTaskMap(ByteBuffer buffer, TaskFileFormat format) {
+        this.buffer = buffer;
+        this.format = format;
+        allocate(16);
+    }
+
+    /**
+     * Opens the given snapshot file, in either format, and indexes its records.
+     *
+     * @param filePath The path to the snapshot file.
+     * @return The lazily materialized task map.
+     * @throws IOException If the file cannot be read, is 2 GB or larger, or is not a valid binary file.
+     */
+    public static LazyTaskMap open(String filePath) throws IOException {
+        Path copy = copyForMapping(Path.of(filePath).toAbsolutePath());
+        try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Task file too large to index lazily: " + filePath);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] header = new byte[BinaryTaskFormat.MAGIC.length];
+            int headerLength = Math.min(header.length, buffer.limit());
+            buffer.get(0, header, 0, headerLength);
+            if (!BinaryTaskFormat.hasMagic(header, headerLength)) {
+                LazyTaskMap map = new LazyTaskMap(buffer, TaskFileFormat.TEXT);
+                map.loader.indexRecords(buffer, map::index);
+                return map;
+            }
+            LazyTaskMap map = new LazyTaskMap(buffer, TaskFileFormat.BINARY);
+            int count = BinaryTaskFormat.readHeader(buffer.duplicate(), filePath);
+            int offset = BinaryTaskFormat.HEADER_SIZE;
+            for (int i = 0; i < count; i++) {
+                map.index(BinaryTaskFormat.readName(buffer, offset, filePath), offset);
+                offset += Integer.BYTES + BinaryTaskFormat.readRecordLength(buffer, offset, filePath);
+            }
+            return map;
+        } finally {
+            deleteIfUnused(copy);
+        }
+    }
+
+    /**
+     * Copies the snapshot file to a new file next to it for mapping, first deleting the copies that earlier maps
+     * could not delete while they were mapped.
+     */
+    private static Path copyForMapping(Path file) throws IOException {
+        String prefix = file.getFileName() + ".";
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(file.getParent(),
+                path -> path.getFileName().toString().startsWith(prefix)
+                        && path.getFileName().toString().endsWith(MAPPED_SUFFIX))) {
+            for (Path path : stale) {
+                deleteIfUnused(path);
+            }
+        }
+        Path copy = Files.createTempFile(file.getParent(), prefix, MAPPED_SUFFIX);
+        try {
+            Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+        return copy;
+    }
+
+    /**
+     * Deletes a copy, unless the platform refuses because it is still mapped.
+     */
+    private static void deleteIfUnused(Path copy) {
+        try {
+            Files.deleteIfExists(copy);
+        } catch (IOException e) {
+            // still mapped by a live map; the next open deletes it
+        }
+    }
+
+    /**
+     * Returns the number of tasks currently decoded and not yet evicted, including pinned ones.
+     *
+     * @return The number of resident tasks.
+     */
+    public int getResidentCount() {
+        int resident = overlay.size();
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null && !overlay.containsKey(keys[slot]) && cache[slot] != null
+                    && cache[slot].get() != null) {
+                resident++;
+            }
+        }
+        return resident;
+    }
+
+    /**
+     * Pins a task that was changed in place, for example marked done, so that it is never evicted and decoded
+     * again from its stale record.
+     *
+     * @param key The name the task is stored under.
+     */
+    public void markChanged(String key) {
+        Task task = get(key);
+        if (task != null) {
+            overlay.put(key, task);
+        }
+    }
+
+    /**
+     * Wraps the map in a {@link TaskMap} that pins a task whenever it is marked done or undone in place. Changes,
+     * including journal replays, must go through the returned map, or a changed task could be evicted and
+     * decoded again from its stale record.
+     *
+     * @return The task map over this map.
+     */
+    public TaskMap asTaskMap() {
+        TaskMap taskMap = new TaskMap(this);
+        taskMap.addListener(new TaskMap.Listener() {
+            @Override
+            public void taskStatusChanged(Task task) {
+                markChanged(task.getName()); // changed in place, so it must not be evicted and decoded again
+            }
+        });
+        return taskMap;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        offsets = new int[capacity];
+        cache = (SoftReference<Task>[]) new SoftReference[capacity];
+    }
+
+    /**
+     * Adds a record to the index. A name that is already indexed now refers to the later record, as it would
+     * after a sequential load.
+     */
+    private void index(String name, int offset) {
+        if ((indexed + 1) * 4L > keys.length * 3L) {
+            String[] oldKeys = keys;
+            int[] oldOffsets = offsets;
+            allocate(keys.length * 2);
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != null) {
+                    int newSlot = probe(oldKeys[slot]);
+                    keys[newSlot] = oldKeys[slot];
+                    offsets[newSlot] = oldOffsets[slot];
+                }
+            }
+        }
+        int slot = probe(name);
+        if (keys[slot] == null) {
+            keys[slot] = name;
+            indexed++;
+            size++;
+        }
+        offsets[slot] = offset;
+    }
+
+    /**
+     * Returns the slot holding the given name, or the empty slot where it would be inserted.
+     */
+    private int probe(Object key) {
+        int h = key.hashCode();
+        int mask = keys.length - 1;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the task in the given index slot, decoding it if it is not resident.
+     */
+    private Task materialize(int slot) {
+        Task task = cache[slot] == null ? null : cache[slot].get();
+        if (task == null) {
+            task = decode(offsets[slot]);
+            cache[slot] = new SoftReference<>(task);
+        }
+        return task;
+    }
+
+    private Task decode(int offset) {
+        if (format == TaskFileFormat.TEXT) {
+            return loader.parseRecord(buffer, offset);
+        }
+        try {
+            return BinaryTaskFormat.decodeRecord(buffer.slice(offset + Integer.BYTES, buffer.getInt(offset)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private boolean isIndexed(Object key) {
+        return key instanceof String && keys[probe(key)] != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(Object key) {
+        Task task = overlay.get(key);
+        if (task != null || !(key instanceof String) || removed.contains(key)) {
+            return task;
+        }
+        int slot = probe(key);
+        return keys[slot] == null ? null : materialize(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overlay.containsKey(key) || (!removed.contains(key) && isIndexed(key));
+    }
+
+    @Override
+    public Task put(String key, Task task) {
+        Task previous = get(key);
+        overlay.put(key, task);
+        removed.remove(key);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public Task remove(Object key) {
+        Task previous = get(key);
+        if (previous == null) {
+            return null;
+        }
+        overlay.remove(key);
+        if (isIndexed(key)) {
+            removed.add((String) key);
+        }
+        size--;
+        return previous;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Task>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Task>> iterator() {
+                return new LazyIterator();
+            }
+        };
+    }
+
+    /**
+     * Returns the task names, read from the overlay and the index alone, so iterating them decodes nothing.
+     *
+     * @return A view of the task names.
+     */
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new KeyIterator();
+            }
+        };
+    }
+
+    /**
+     * Walks the overlay first and then the index slots it does not shadow, skipping removed names.
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final Iterator<Map.Entry<String, Task>> overlayIterator = overlay.entrySet().iterator();
+        private boolean isInOverlay = true;
+        private int nextSlot = -1;
+        /**
+         * The index slot of the current name, if it is not in the overlay.
+         */
+        int slot = -1;
+        /**
+         * The task of the current name, if it is in the overlay.
+         */
+        Task overlayTask;
+        private String currentKey;
+        private boolean isCurrentInOverlay;
+
+        @Override
+        public boolean hasNext() {
+            if (isInOverlay) {
+                if (overlayIterator.hasNext()) {
+                    return true;
+                }
+                isInOverlay = false;
+            }
+            if (nextSlot <= slot) {
+                nextSlot = slot + 1;
+                while (nextSlot < keys.length && (keys[nextSlot] == null || overlay.containsKey(keys[nextSlot])
+                        || removed.contains(keys[nextSlot]))) {
+                    nextSlot++;
+                }
+            }
+            return nextSlot < keys.length;
+        }
+
+        /**
+         * Moves to the next name and returns it.
+         */
+        String advance() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (isInOverlay) {
+                Map.Entry<String, Task> entry = overlayIterator.next();
+                currentKey = entry.getKey();
+                overlayTask = entry.getValue();
+                isCurrentInOverlay = true;
+            } else {
+                slot = nextSlot;
+                currentKey = keys[slot];
+                overlayTask = null;
+                isCurrentInOverlay = false;
+            }
+            return currentKey;
+        }
+
+        @Override
+        public void remove() {
+            if (currentKey == null) {
+                throw new IllegalStateException();
+            }
+            if (isCurrentInOverlay) {
+                overlayIterator.remove();
+            }
+            if (isIndexed(currentKey)) {
+                removed.add(currentKey);
+            }
+            size--;
+            currentKey = null;
+        }
+    }
+
+    /**
+     * Iterates over the names without decoding any task.
+     */
+    private class KeyIterator extends SlotIterator<String> {
+        @Override
+        public String next() {
+            return advance();
+        }
+    }
+
+    /**
+     * Iterates over the entries, decoding each indexed task as the iteration reaches it.
+     */
+    private class LazyIterator extends SlotIterator<Map.Entry<String, Task>> {
+        @Override
+        public Map.Entry<String, Task> next() {
+            String key = advance();
+            return new AbstractMap.SimpleImmutableEntry<>(key, overlayTask != null ? overlayTask : materialize(slot));
+        }
+    }
+}
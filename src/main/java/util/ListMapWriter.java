@@ -1,16 +1,33 @@
 package util;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 
 import task.Task;
 /**
  * The ListMapWriter class provides functionality to write a map of tasks to a file.
- * This class handles the serialization of tasks from a map structure into a plain text file.
+ * This class handles the serialization of tasks from a map structure into a plain text file,
+ * or into the compact {@link BinaryTaskFormat} when asked to.
+ * <p>
+ * Files are never overwritten in place: the tasks are written to a temporary file next to the target,
+ * which is synced to disk and then atomically renamed over the target. A crash part-way through a write
+ * therefore leaves the previous file intact.
  */
 public class ListMapWriter {
+    /**
+     * The suffix of the temporary file a snapshot is written to before it replaces the real file.
+     */
+    public static final String TEMP_SUFFIX = ".tmp";
 
     /**
      * Writes the provided map of tasks to the specified file.
@@ -18,15 +35,106 @@ public class ListMapWriter {
      *
      * @param taskMap  A map where the key is a string representing the task name and the value is a Task object.
      * @param filePath The path to the file where the tasks will be written.
+     * @return {@code true} if every task was written, {@code false} if an I/O error occurred.
      */
-    public void writeMapToFile(Map<String, Task> taskMap, String filePath) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (Task task : taskMap.values()) {
-                writer.write(task.toString()); // Write the string representation of the task to the file
-                writer.newLine(); // Write a new line after each task
-            }
+    public boolean writeMapToFile(Map<String, Task> taskMap, String filePath) {
+        return writeMapToFile(taskMap, filePath, TaskFileFormat.TEXT);
+    }
+
+    /**
+     * Writes the provided map of tasks to the specified file in the given format.
+     *
+     * @param taskMap  A map where the key is a string representing the task name and the value is a Task object.
+     * @param filePath The path to the file where the tasks will be written.
+     * @param format   The format to write the file in.
+     * @return {@code true} if every task was written, {@code false} if an I/O error occurred.
+     */
+    public boolean writeMapToFile(Map<String, Task> taskMap, String filePath, TaskFileFormat format) {
+        try {
+            writeSnapshot(taskMap, filePath, format);
+            return true;
         } catch (IOException e) {
             e.printStackTrace(); // Print stack trace if an IOException occurs
+            return false;
+        }
+    }
+
+    /**
+     * Atomically replaces the specified file with a snapshot of the provided tasks.
+     * <p>
+     * The snapshot is written to a temporary file, forced to disk, and renamed over the target, so the
+     * target always holds either the previous snapshot or the complete new one.
+     *
+     * @param taskMap  A map where the key is a string representing the task name and the value is a Task object.
+     * @param filePath The path to the file where the tasks will be written.
+     * @param format   The format to write the file in.
+     * @throws IOException If the snapshot could not be written; the previous file is left untouched.
+     */
+    public void writeSnapshot(Map<String, Task> taskMap, String filePath, TaskFileFormat format) throws IOException {
+        writeAtomically(filePath, out -> {
+            if (format == TaskFileFormat.BINARY) {
+                BinaryTaskFormat.write(taskMap, out);
+            } else {
+                writeText(taskMap, out);
+            }
+        });
+    }
+
+    /**
+     * Produces the content of a file written by {@link #writeAtomically}.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Atomically replaces the specified file with the content produced by {@code content}, going through a
+     * synced temporary file and an atomic rename.
+     *
+     * @param filePath The path to the file to replace.
+     * @param content  Writes the new content of the file.
+     * @throws IOException If the file could not be written; the previous file is left untouched.
+     */
+    static void writeAtomically(String filePath, ContentWriter content) throws IOException {
+        Path target = Path.of(filePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            content.write(out);
+            out.getFD().sync(); // the data must be on disk before the rename makes it visible
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.getParent());
+    }
+
+    private static void writeText(Map<String, Task> taskMap, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
+        for (Task task : taskMap.values()) {
+            writer.write(task.toString()); // Write the string representation of the task to the file
+            writer.newLine(); // Write a new line after each task
+        }
+        writer.flush();
+    }
+
+    /**
+     * Makes the rename durable by syncing the directory entry. Not every platform allows a directory
+     * to be opened for syncing, in which case this is skipped.
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // best effort: the snapshot itself has already been synced
         }
     }
 }
@@ -1,6 +1,8 @@
 package util;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.time.LocalDate;
@@ -43,12 +45,18 @@ import task.Todo;
 public class ListReader {
     /**
      * Reads tasks from a file and parses them into a Map.
+     * <p>
+     * Files starting with the {@link BinaryTaskFormat} magic header are decoded as binary;
+     * anything else is parsed as the text format.
      *
      * @param filePath The path to the file containing the tasks.
      * @return A map where the key is the task name and the value is the Task object.
      * @throws IOException If an I/O error occurs reading from the file.
      */
     public Map<String, Task> readTasksFromFile(String filePath) throws IOException {
+        if (detectFormat(filePath) == TaskFileFormat.BINARY) {
+            return BinaryTaskFormat.read(filePath);
+        }
         Map<String, Task> taskList = new HashMap<>();
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             String line;
@@ -74,6 +82,39 @@ public class ListReader {
         return taskList;
     }
 
+    /**
+     * Detects the format of a task file by looking at its first bytes.
+     *
+     * @param filePath The path to the file containing the tasks.
+     * @return {@link TaskFileFormat#BINARY} if the file starts with the binary magic header,
+     *         {@link TaskFileFormat#TEXT} otherwise.
+     * @throws IOException If an I/O error occurs reading from the file.
+     */
+    public TaskFileFormat detectFormat(String filePath) throws IOException {
+        byte[] header = new byte[BinaryTaskFormat.MAGIC.length];
+        try (FileInputStream in = new FileInputStream(filePath)) {
+            int length = in.readNBytes(header, 0, header.length);
+            return BinaryTaskFormat.hasMagic(header, length) ? TaskFileFormat.BINARY : TaskFileFormat.TEXT;
+        }
+    }
+
+    /**
+     * Reads the snapshot file and replays its {@link TaskJournal} on top of it, so that every mutation
+     * journaled since the snapshot was written is reflected in the returned map.
+     * The snapshot is loaded with the allocation-light {@link MappedTaskLoader}.
+     *
+     * @param filePath The path to the snapshot file containing the tasks.
+     * @return A map where the key is the task name and the value is the Task object.
+     * @throws IOException If an I/O error occurs reading the snapshot or the journal.
+     */
+    public Map<String, Task> readTasksWithJournal(String filePath) throws IOException {
+        Map<String, Task> taskList = new File(filePath).exists()
+                ? new MappedTaskLoader().load(filePath)
+                : new HashMap<>();
+        new TaskJournal(filePath).replay(taskList);
+        return taskList;
+    }
+
     /**
      * Parses a Todo task from the input line.
      *
@@ -115,8 +156,7 @@ public class ListReader {
 
         String byTimeLine = br.readLine().trim();
         String byTimeStr = byTimeLine.replaceFirst("By: ", "").trim();
-        String formattedByTimeStr = DateParser.parseDate(byTimeStr);
-        LocalDate byTime = LocalDate.parse(formattedByTimeStr);
+        LocalDate byTime = DateParser.parseLocalDate(byTimeStr);
 
         return new Deadline(name, description, byTime, isDone);
     }
@@ -140,12 +180,10 @@ public class ListReader {
         String description = descriptionLine.replaceFirst("Description: ", "").trim();
         String startTimeLine = br.readLine().trim();
         String startTimeStr = startTimeLine.replaceFirst("Start Time: ", "").trim();
-        String formattedStartTimeStr = DateParser.parseDate(startTimeStr);
-        LocalDate startTime = LocalDate.parse(formattedStartTimeStr);
+        LocalDate startTime = DateParser.parseLocalDate(startTimeStr);
         String endTimeLine = br.readLine().trim();
         String endTimeStr = endTimeLine.replaceFirst("End Time: ", "").trim();
-        String formattedEndTimeStr = DateParser.parseDate(endTimeStr);
-        LocalDate endTime = LocalDate.parse(formattedEndTimeStr);
+        LocalDate endTime = DateParser.parseLocalDate(endTimeStr);
         String locationLine = br.readLine().trim();
         String location = locationLine.replaceFirst("Location: ", "").trim();
         return new Event(name, description, startTime, endTime, location, isDone);
@@ -0,0 +1,577 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+
+import task.Deadline;
+import task.Event;
+import task.Task;
+import task.Todo;
+
+/**
+ * The {@code MappedTaskLoader} class loads the text task format by scanning a memory-mapped view of the file
+ * byte by byte.
+ * <p>
+ * It produces exactly the same map as {@link ListReader#readTasksFromFile(String)}, but avoids the per-line
+ * {@code String} copies, {@code trim()}/{@code split()} calls and regular expressions of that parser: line
+ * boundaries, field prefixes, the done marker and dates are all recognised on the raw bytes, and the only
+ * strings created are the final name, description and location of each task. Inputs that fall outside the
+ * common shape (for example a field prefix that is not at the start of its line) are handed to the same
+ * string-based logic as {@code ListReader} so that the results never differ.
+ * <p>
+ * Large text files are parsed in parallel: the file is cut into chunks at lines that start a record
+ * ({@code [T]}, {@code [D]} or {@code [E]}), the chunks are parsed on a {@link ForkJoinPool}, and the partial
+ * maps are merged in file order, so a task that appears twice still resolves to its last occurrence. The number
+ * of threads is set by the {@value #PARALLELISM_PROPERTY} system property and defaults to the number of
+ * available processors; a parallelism of 1 parses sequentially. A cut can land on a line inside a record that
+ * merely looks like a header, so if any chunk fails to parse or its last record runs past the start of the next
+ * chunk, the whole file is parsed again sequentially and the result still matches {@code ListReader}.
+ * <p>
+ * The file is decoded as UTF-8.
+ */
+public class MappedTaskLoader {
+    /**
+     * The system property that sets how many threads parse a large text file, e.g.
+     * {@code -Dsigmabot.load.parallelism=16}.
+     */
+    public static final String PARALLELISM_PROPERTY = "sigmabot.load.parallelism";
+    /**
+     * Files smaller than this many bytes per thread are not worth splitting and are parsed sequentially.
+     */
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+    /**
+     * The number of chunks per thread, so that threads that finish early can pick up more work.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final byte[] TODO_MARKER = ascii("[T]");
+    private static final byte[] DEADLINE_MARKER = ascii("[D]");
+    private static final byte[] EVENT_MARKER = ascii("[E]");
+    private static final byte[] DONE_MARKER = ascii("[X]");
+    private static final byte[] DESCRIPTION_PREFIX = ascii("Description: ");
+    private static final byte[] BY_PREFIX = ascii("By: ");
+    private static final byte[] START_PREFIX = ascii("Start Time: ");
+    private static final byte[] END_PREFIX = ascii("End Time: ");
+    private static final byte[] LOCATION_PREFIX = ascii("Location: ");
+    private static final String[] MONTHS = {
+        "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"
+    };
+
+    /**
+     * Scratch space for decoding strings out of the (array-less) mapped buffer.
+     */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Start and end offsets of the line most recently found by {@link #nextLine}, after trimming.
+     */
+    private int lineStart;
+    private int lineEnd;
+    /**
+     * The offset just after the last line consumed by a {@code parse...Task} method.
+     */
+    private int nextPosition;
+
+    private final int parallelism;
+    private final int minChunkSize;
+
+    /**
+     * Constructs a loader whose parallelism is set by the {@value #PARALLELISM_PROPERTY} system property.
+     */
+    public MappedTaskLoader() {
+        this(Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructs a loader that parses large text files with the given number of threads.
+     *
+     * @param parallelism The number of threads to use; 1 or less parses sequentially.
+     */
+    public MappedTaskLoader(int parallelism) {
+        this(parallelism, MIN_CHUNK_SIZE);
+    }
+
+    MappedTaskLoader(int parallelism, int minChunkSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.minChunkSize = Math.max(1, minChunkSize);
+    }
+
+    /**
+     * Loads a task file, decoding it as binary if it starts with the {@link BinaryTaskFormat} magic header
+     * and scanning it as text otherwise.
+     *
+     * @param filePath The path to the file containing the tasks.
+     * @return A map where the key is the task name and the value is the Task object.
+     * @throws IOException If an I/O error occurs reading from the file.
+     */
+    public Map<String, Task> load(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                // A single mapping cannot cover the file, so use the reader that streams it instead
+                return new ListReader().readTasksFromFile(filePath);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] header = new byte[BinaryTaskFormat.MAGIC.length];
+            int headerLength = Math.min(header.length, buffer.limit());
+            buffer.get(0, header, 0, headerLength);
+            if (BinaryTaskFormat.hasMagic(header, headerLength)) {
+                return BinaryTaskFormat.read(filePath);
+            }
+            int chunkCount = Math.min(parallelism * CHUNKS_PER_THREAD, buffer.limit() / minChunkSize);
+            if (parallelism > 1 && chunkCount > 1) {
+                Map<String, Task> taskList = parseInParallel(buffer, chunkCount);
+                if (taskList != null) {
+                    return taskList;
+                }
+            }
+            Map<String, Task> taskList = new HashMap<>();
+            parseRange(buffer, 0, buffer.limit(), taskList);
+            return taskList;
+        }
+    }
+
+    /**
+     * Parses the text in {@code buffer} as roughly {@code chunkCount} chunks on a fork-join pool.
+     *
+     * @return The merged tasks, or {@code null} if the chunk boundaries turned out not to be record boundaries
+     *         or a chunk failed to parse.
+     * @throws IOException If parsing was interrupted.
+     */
+    private Map<String, Task> parseInParallel(ByteBuffer buffer, int chunkCount) throws IOException {
+        List<Integer> boundaries = findRecordBoundaries(buffer, chunkCount);
+        List<Callable<Chunk>> chunks = new ArrayList<>();
+        for (int i = 0; i + 1 < boundaries.size(); i++) {
+            int start = boundaries.get(i);
+            int end = boundaries.get(i + 1);
+            // Absolute reads never move the buffer's position, so the chunks can share it
+            chunks.add(() -> {
+                Map<String, Task> tasks = new HashMap<>();
+                int stop = new MappedTaskLoader(1).parseRange(buffer, start, end, tasks);
+                return new Chunk(tasks, stop);
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Chunk> parsed = new ArrayList<>();
+            int size = 0;
+            for (Future<Chunk> future : pool.invokeAll(chunks)) {
+                Chunk chunk = future.get();
+                parsed.add(chunk);
+                size += chunk.tasks().size();
+            }
+            Map<String, Task> taskList = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+            for (int i = 0; i < parsed.size(); i++) {
+                if (parsed.get(i).stop() != boundaries.get(i + 1)) {
+                    return null; // a record ran into the next chunk, which therefore started mid-record
+                }
+                taskList.putAll(parsed.get(i).tasks());
+            }
+            return taskList;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading tasks", e);
+        } catch (ExecutionException e) {
+            // A chunk that starts mid-record can fail on text a sequential parse accepts, so let the sequential
+            // parse decide, which also reports a genuinely malformed file exactly as it always has
+            return null;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The tasks parsed from one chunk, and the offset at which parsing stopped.
+     */
+    private record Chunk(Map<String, Task> tasks, int stop) {
+    }
+
+    /**
+     * Splits the buffer into about {@code chunkCount} pieces of similar size, moving each cut forward to the
+     * start of the next line that begins a record.
+     *
+     * @return The chunk boundaries, starting with 0 and ending with the buffer's limit.
+     */
+    private List<Integer> findRecordBoundaries(ByteBuffer buffer, int chunkCount) {
+        int limit = buffer.limit();
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(0);
+        for (int i = 1; i < chunkCount; i++) {
+            int target = (int) ((long) limit * i / chunkCount);
+            int previous = boundaries.get(boundaries.size() - 1);
+            int boundary = nextRecordStart(buffer, Math.max(target, previous + 1), limit);
+            if (boundary >= limit) {
+                break;
+            }
+            boundaries.add(boundary);
+        }
+        boundaries.add(limit);
+        return boundaries;
+    }
+
+    /**
+     * Returns the offset of the first line at or after the line containing {@code from} (exclusive) whose
+     * trimmed text starts with a task marker, or {@code limit} if there is none.
+     */
+    private int nextRecordStart(ByteBuffer buffer, int from, int limit) {
+        int pos = from;
+        while (pos < limit && buffer.get(pos - 1) != '\n' && buffer.get(pos - 1) != '\r') {
+            pos++;
+        }
+        while (pos < limit) {
+            int next = nextLine(buffer, pos, limit);
+            if (startsWith(buffer, lineStart, lineEnd, TODO_MARKER)
+                    || startsWith(buffer, lineStart, lineEnd, DEADLINE_MARKER)
+                    || startsWith(buffer, lineStart, lineEnd, EVENT_MARKER)) {
+                return pos;
+            }
+            pos = next;
+        }
+        return limit;
+    }
+
+    /**
+     * Parses every task whose header line starts within {@code [start, end)} and puts it into the map.
+     * {@code start} must be at the beginning of a line.
+     *
+     * @param buffer   The buffer holding the text of the task file.
+     * @param start    The offset to start scanning at.
+     * @param end      The offset to stop scanning at.
+     * @param taskList The map to put the parsed tasks into.
+     * @return The offset just after the last line that was read, which is at least {@code end} unless the
+     *         buffer ended first.
+     */
+    int parseRange(ByteBuffer buffer, int start, int end, Map<String, Task> taskList) {
+        int pos = start;
+        while (pos < end) {
+            pos = nextLine(buffer, pos, buffer.limit());
+            if (lineStart == lineEnd) {
+                continue; // Skip empty lines
+            }
+            Task task = parseHeader(buffer, pos);
+            if (task == null) {
+                System.out.println("Unknown task format: " + decode(buffer, lineStart, lineEnd));
+                continue;
+            }
+            pos = nextPosition;
+            taskList.put(task.getName(), task);
+        }
+        return pos;
+    }
+
+    /**
+     * Parses the single task whose header line starts at the given offset.
+     *
+     * @param buffer The buffer holding the text of the task file.
+     * @param offset The offset of the header line, as passed to an {@link #indexRecords} consumer.
+     * @return The task.
+     * @throws IllegalArgumentException If there is no task header at {@code offset}, or the record is malformed.
+     */
+    Task parseRecord(ByteBuffer buffer, int offset) {
+        int pos = nextLine(buffer, offset, buffer.limit());
+        Task task = parseHeader(buffer, pos);
+        if (task == null) {
+            throw new IllegalArgumentException("No task at offset " + offset);
+        }
+        return task;
+    }
+
+    /**
+     * Finds every record in the buffer without decoding it, passing its name and the offset of its header line
+     * to {@code consumer} in file order. Records are delimited exactly as {@link #parseRange} delimits them,
+     * but only the header line of each is decoded, so descriptions and dates are not checked until the record
+     * is parsed with {@link #parseRecord}.
+     *
+     * @param buffer   The buffer holding the text of the task file.
+     * @param consumer Receives the name and offset of each record.
+     */
+    void indexRecords(ByteBuffer buffer, ObjIntConsumer<String> consumer) {
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int start = pos;
+            pos = nextLine(buffer, pos, limit);
+            if (lineStart == lineEnd) {
+                continue; // Skip empty lines
+            }
+            String type;
+            int fieldLines;
+            if (startsWith(buffer, lineStart, lineEnd, TODO_MARKER)) {
+                type = "Todo";
+                fieldLines = 1;
+            } else if (startsWith(buffer, lineStart, lineEnd, DEADLINE_MARKER)) {
+                type = "Deadline";
+                fieldLines = 2;
+            } else if (startsWith(buffer, lineStart, lineEnd, EVENT_MARKER)) {
+                type = "Event";
+                fieldLines = 4;
+            } else {
+                System.out.println("Unknown task format: " + decode(buffer, lineStart, lineEnd));
+                continue;
+            }
+            String name = parseName(buffer);
+            for (int i = 0; i < fieldLines; i++) {
+                pos = requireLine(buffer, pos, type, name);
+            }
+            consumer.accept(name, start);
+        }
+    }
+
+    /**
+     * Parses the record whose header is the current line, or returns {@code null} if the line is not a header.
+     */
+    private Task parseHeader(ByteBuffer buffer, int pos) {
+        if (startsWith(buffer, lineStart, lineEnd, TODO_MARKER)) {
+            return parseTodoTask(buffer, pos);
+        } else if (startsWith(buffer, lineStart, lineEnd, DEADLINE_MARKER)) {
+            return parseDeadlineTask(buffer, pos);
+        } else if (startsWith(buffer, lineStart, lineEnd, EVENT_MARKER)) {
+            return parseEventTask(buffer, pos);
+        }
+        return null;
+    }
+
+    private Task parseTodoTask(ByteBuffer buffer, int pos) {
+        boolean isDone = contains(buffer, lineStart, lineEnd, DONE_MARKER);
+        String name = parseName(buffer);
+        pos = requireLine(buffer, pos, "Todo", name);
+        String description = parseField(buffer, DESCRIPTION_PREFIX);
+        nextPosition = pos;
+        return new Todo(name, description, isDone);
+    }
+
+    private Task parseDeadlineTask(ByteBuffer buffer, int pos) {
+        boolean isDone = contains(buffer, lineStart, lineEnd, DONE_MARKER);
+        String name = parseName(buffer);
+        pos = requireLine(buffer, pos, "Deadline", name);
+        String description = parseField(buffer, DESCRIPTION_PREFIX);
+        pos = requireLine(buffer, pos, "Deadline", name);
+        LocalDate byTime = parseDateField(buffer, BY_PREFIX);
+        nextPosition = pos;
+        return new Deadline(name, description, byTime, isDone);
+    }
+
+    private Task parseEventTask(ByteBuffer buffer, int pos) {
+        boolean isDone = contains(buffer, lineStart, lineEnd, DONE_MARKER);
+        String name = parseName(buffer);
+        pos = requireLine(buffer, pos, "Event", name);
+        String description = parseField(buffer, DESCRIPTION_PREFIX);
+        pos = requireLine(buffer, pos, "Event", name);
+        LocalDate startTime = parseDateField(buffer, START_PREFIX);
+        pos = requireLine(buffer, pos, "Event", name);
+        LocalDate endTime = parseDateField(buffer, END_PREFIX);
+        pos = requireLine(buffer, pos, "Event", name);
+        String location = parseField(buffer, LOCATION_PREFIX);
+        nextPosition = pos;
+        return new Event(name, description, startTime, endTime, location, isDone);
+    }
+
+    /**
+     * Extracts the task name from the header line, skipping the type marker and any further leading
+     * {@code [c]} sequences just like {@code ListReader.cleanTaskName}.
+     */
+    private String parseName(ByteBuffer buffer) {
+        int from = lineStart + TODO_MARKER.length; // all type markers have the same length
+        from = skipWhitespace(buffer, from, lineEnd);
+        while (from < lineEnd && buffer.get(from) == '[') {
+            int close = indexOf(buffer, from + 1, lineEnd, (byte) ']');
+            if (close < 0) {
+                break;
+            }
+            from = skipWhitespace(buffer, close + 1, lineEnd);
+        }
+        return decode(buffer, from, lineEnd);
+    }
+
+    /**
+     * Returns the value of the current field line with the given prefix removed and the rest trimmed.
+     */
+    private String parseField(ByteBuffer buffer, byte[] prefix) {
+        if (startsWith(buffer, lineStart, lineEnd, prefix)) {
+            return decode(buffer, skipWhitespace(buffer, lineStart + prefix.length, lineEnd), lineEnd);
+        }
+        // Unusual line: reproduce ListReader's "remove the first occurrence of the prefix, then trim"
+        String line = decode(buffer, lineStart, lineEnd);
+        String prefixString = new String(prefix, StandardCharsets.US_ASCII);
+        int index = line.indexOf(prefixString);
+        if (index >= 0) {
+            line = line.substring(0, index) + line.substring(index + prefixString.length());
+        }
+        return line.trim();
+    }
+
+    /**
+     * Parses the date held by the current field line.
+     */
+    private LocalDate parseDateField(ByteBuffer buffer, byte[] prefix) {
+        if (startsWith(buffer, lineStart, lineEnd, prefix)) {
+            LocalDate date = parseDate(buffer, skipWhitespace(buffer, lineStart + prefix.length, lineEnd), lineEnd);
+            if (date != null) {
+                return date;
+            }
+        }
+        return DateParser.parseLocalDate(parseField(buffer, prefix));
+    }
+
+    /**
+     * Parses a {@code d/MMM/yyyy} or {@code dd/MMM/yyyy} date directly from the bytes.
+     *
+     * @return The date, or {@code null} if the bytes do not have that exact shape, in which case the caller
+     *         falls back to {@link DateParser} so that errors are reported the same way.
+     */
+    private LocalDate parseDate(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        int dayDigits = length - 9; // "/MMM/yyyy" is nine bytes
+        if (dayDigits != 1 && dayDigits != 2) {
+            return null;
+        }
+        int day = 0;
+        for (int i = 0; i < dayDigits; i++) {
+            int digit = buffer.get(from + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            day = day * 10 + digit;
+        }
+        int pos = from + dayDigits;
+        if (buffer.get(pos) != '/' || buffer.get(pos + 4) != '/') {
+            return null;
+        }
+        int month = 0;
+        for (int m = 0; m < MONTHS.length && month == 0; m++) {
+            String abbreviation = MONTHS[m];
+            boolean isMatch = true;
+            for (int i = 0; i < 3 && isMatch; i++) {
+                isMatch = Character.toUpperCase((char) buffer.get(pos + 1 + i)) == abbreviation.charAt(i);
+            }
+            if (isMatch) {
+                month = m + 1;
+            }
+        }
+        if (month == 0) {
+            return null;
+        }
+        int year = 0;
+        for (int i = pos + 5; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return null;
+            }
+            year = year * 10 + digit;
+        }
+        try {
+            return DateParser.cachedDate(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Moves to the next line of a multi-line record, failing if the file ends first.
+     */
+    private int requireLine(ByteBuffer buffer, int pos, String type, String name) {
+        if (pos >= buffer.limit()) {
+            throw new IllegalArgumentException("Invalid format for " + type + " task: " + name);
+        }
+        return nextLine(buffer, pos, buffer.limit());
+    }
+
+    /**
+     * Finds the line starting at {@code pos}, stores its trimmed bounds in {@link #lineStart} and
+     * {@link #lineEnd}, and returns the offset of the following line. Line breaks are {@code \n},
+     * {@code \r} or {@code \r\n}, as for {@link java.io.BufferedReader#readLine()}.
+     */
+    private int nextLine(ByteBuffer buffer, int pos, int limit) {
+        int end = pos;
+        while (end < limit) {
+            byte b = buffer.get(end);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            end++;
+        }
+        int next = end;
+        if (next < limit) {
+            next += buffer.get(next) == '\r' && next + 1 < limit && buffer.get(next + 1) == '\n' ? 2 : 1;
+        }
+        int start = skipWhitespace(buffer, pos, end);
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        lineStart = start;
+        lineEnd = end;
+        return next;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int from, int to) {
+        while (from < to && isWhitespace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Mirrors {@link String#trim()}, which treats every character up to and including space as whitespace.
+     * Bytes of multi-byte UTF-8 sequences are negative and therefore never whitespace.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(ByteBuffer buffer, int from, int to, byte[] needle) {
+        for (int i = from; i <= to - needle.length; i++) {
+            if (startsWith(buffer, i, to, needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,351 @@
+package util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import task.Task;
+import task.TaskMap;
+
+/**
+ * The {@code PersistenceService} class writes {@link TaskJournal} records on a background thread so that
+ * saving a change never blocks the caller, which is usually the JavaFX application thread.
+ * <p>
+ * Mutations are encoded into journal records immediately, on the caller's thread, and queued. A single writer
+ * thread drains the queue: every record that arrived while the previous write was in progress is appended in
+ * one batch and synced to disk once, so a burst of commands results in one disk write and one sync rather than
+ * one of each per command (group commit).
+ * {@link #recordChanges(TaskMap)} queues records for just the entries a {@link TaskMap} reports as changed.
+ * <p>
+ * Once the journal grows past a size threshold, {@link #compactIfNeeded(Map)} folds it into a fresh snapshot
+ * produced by a {@link SnapshotWriter}, and the journal starts over. Recovery after a crash
+ * therefore only has to replay a bounded journal tail on top of the latest snapshot.
+ * <p>
+ * Write failures are kept and reported through {@link #pollFailure()}; the records that failed stay queued and
+ * are retried with the next batch. {@link #awaitDurable()} blocks until every record queued so far is on disk.
+ */
+public class PersistenceService {
+    /**
+     * The system property that sets the journal size, in bytes, at which it is compacted into a snapshot.
+     */
+    public static final String COMPACTION_THRESHOLD_PROPERTY = "sigmabot.journal.compactBytes";
+    /**
+     * The default journal size, in bytes, at which it is compacted into a snapshot.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1L << 20;
+
+    private final TaskJournal journal;
+    private final SnapshotWriter snapshotWriter;
+    private final long compactionThreshold;
+    private final ExecutorService executor;
+    private final Object lock = new Object();
+
+    /**
+     * Records waiting to be written, in the order they were queued. Guarded by {@link #lock}.
+     */
+    private List<String> pending = new ArrayList<>();
+    /**
+     * Whether a drain is already scheduled on the writer thread. Guarded by {@link #lock}.
+     */
+    private boolean isDrainScheduled = false;
+    /**
+     * Whether a snapshot has been requested but not written yet. While it is, drains leave newly queued records
+     * alone, because the journal is about to be truncated and those records are not part of the snapshot.
+     * Guarded by {@link #lock}.
+     */
+    private boolean isSnapshotPending = false;
+    /**
+     * The approximate number of bytes in the journal, including queued records. Guarded by {@link #lock}.
+     */
+    private long journalBytes;
+    /**
+     * The last write failure that has not been reported yet. Guarded by {@link #lock}.
+     */
+    private IOException failure;
+    /**
+     * The number of batches written so far. Guarded by {@link #lock}.
+     */
+    private long writeCount = 0;
+
+    /**
+     * Constructs a persistence service that appends to the given journal and compacts it into snapshots
+     * of the given format once it passes the threshold set by {@value #COMPACTION_THRESHOLD_PROPERTY}.
+     *
+     * @param journal        The journal to append records to.
+     * @param snapshotFormat The format snapshots are written in.
+     */
+    public PersistenceService(TaskJournal journal, TaskFileFormat snapshotFormat) {
+        this(journal, snapshotFormat, Long.getLong(COMPACTION_THRESHOLD_PROPERTY, DEFAULT_COMPACTION_THRESHOLD));
+    }
+
+    /**
+     * Constructs a persistence service that appends to the given journal and compacts it into snapshots
+     * of the given format once it passes the given size.
+     *
+     * @param journal             The journal to append records to.
+     * @param snapshotFormat      The format snapshots are written in.
+     * @param compactionThreshold The journal size, in bytes, at which it is compacted.
+     */
+    public PersistenceService(TaskJournal journal, TaskFileFormat snapshotFormat, long compactionThreshold) {
+        this(journal, SnapshotWriter.toFile(journal.getSnapshotPath(), snapshotFormat), compactionThreshold);
+    }
+
+    /**
+     * Constructs a persistence service that appends to the given journal and compacts it with the given
+     * snapshot writer once it passes the given size.
+     *
+     * @param journal             The journal to append records to.
+     * @param snapshotWriter      Captures and writes snapshots when the journal is compacted.
+     * @param compactionThreshold The journal size, in bytes, at which it is compacted.
+     */
+    public PersistenceService(TaskJournal journal, SnapshotWriter snapshotWriter, long compactionThreshold) {
+        this.journal = journal;
+        this.snapshotWriter = snapshotWriter;
+        this.compactionThreshold = compactionThreshold;
+        this.journalBytes = journal.size();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sigmabot-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a record for a newly added task.
+     *
+     * @param task The task that was added.
+     */
+    public void recordAdd(Task task) {
+        enqueue(TaskJournal.encodeAdd(task));
+    }
+
+    /**
+     * Queues a record for a task that was marked done.
+     *
+     * @param name The name of the task.
+     */
+    public void recordMark(String name) {
+        enqueue(TaskJournal.encodeNamed('M', name));
+    }
+
+    /**
+     * Queues a record for a task that was marked undone.
+     *
+     * @param name The name of the task.
+     */
+    public void recordUnmark(String name) {
+        enqueue(TaskJournal.encodeNamed('U', name));
+    }
+
+    /**
+     * Queues a record for a task that was removed.
+     *
+     * @param name The key under which the task was stored.
+     */
+    public void recordDelete(String name) {
+        enqueue(TaskJournal.encodeNamed('R', name));
+    }
+
+    /**
+     * Queues one record for every key of the task map that changed since the last call, leaving the rest of
+     * the list alone: a delete record for a removed task, an add record (which carries the status) for a new or
+     * replaced task, and a mark or unmark record for a task whose status changed.
+     *
+     * @param taskList The task map whose changes are to be saved.
+     */
+    public void recordChanges(TaskMap taskList) {
+        List<String> records = new ArrayList<>();
+        for (Map.Entry<String, TaskMap.Change> change : taskList.drainChanges().entrySet()) {
+            String name = change.getKey();
+            Task task = taskList.get(name);
+            if (change.getValue() == TaskMap.Change.REMOVED || task == null) {
+                records.add(TaskJournal.encodeNamed('R', name));
+            } else if (change.getValue() == TaskMap.Change.ADDED) {
+                records.add(TaskJournal.encodeAdd(task));
+            } else {
+                records.add(TaskJournal.encodeNamed(task.isDone() ? 'M' : 'U', name));
+            }
+        }
+        enqueue(records);
+    }
+
+    private void enqueue(String record) {
+        enqueue(List.of(record));
+    }
+
+    private void enqueue(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (String record : records) {
+                pending.add(record);
+                journalBytes += record.length() + 1;
+            }
+            if (!isDrainScheduled && !isSnapshotPending) {
+                isDrainScheduled = true;
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    /**
+     * Writes every queued record in a single append. Runs on the writer thread only.
+     */
+    private void drain() {
+        List<String> batch;
+        synchronized (lock) {
+            isDrainScheduled = false;
+            if (pending.isEmpty() || isSnapshotPending) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        try {
+            journal.appendAll(batch);
+            synchronized (lock) {
+                writeCount++;
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                batch.addAll(pending); // keep the original order for the retry
+                pending = batch;
+            }
+        }
+    }
+
+    /**
+     * Starts a background compaction if the journal has grown past the threshold. The snapshot is captured
+     * on the calling thread, which must be the only thread that mutates the tasks.
+     *
+     * @param taskList The current tasks, including every change recorded so far.
+     */
+    public void compactIfNeeded(Map<String, Task> taskList) {
+        synchronized (lock) {
+            if (journalBytes < compactionThreshold || isSnapshotPending) {
+                return;
+            }
+        }
+        requestSnapshot(taskList);
+    }
+
+    /**
+     * Writes a snapshot of the given tasks and empties the journal, waiting until both are done.
+     *
+     * @param taskList The current tasks, including every change recorded so far.
+     * @throws IOException If the snapshot could not be written; the journal is kept in that case.
+     */
+    public void writeSnapshot(Map<String, Task> taskList) throws IOException {
+        requestSnapshot(taskList);
+        awaitDurable();
+        IOException e = pollFailure();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Captures a snapshot of the task map and schedules it to be written. Records queued before this call are
+     * covered by the snapshot; records queued after it are held back until the journal has been truncated.
+     */
+    private void requestSnapshot(Map<String, Task> taskList) {
+        SnapshotWriter.Snapshot snapshot = snapshotWriter.capture(taskList);
+        List<String> covered;
+        synchronized (lock) {
+            covered = pending;
+            pending = new ArrayList<>();
+            isSnapshotPending = true;
+        }
+        executor.execute(() -> writeSnapshot(snapshot, covered));
+    }
+
+    /**
+     * Writes the snapshot and truncates the journal. Runs on the writer thread only.
+     *
+     * @param snapshot The captured snapshot.
+     * @param covered  The queued records whose changes are already part of {@code snapshot}.
+     */
+    private void writeSnapshot(SnapshotWriter.Snapshot snapshot, List<String> covered) {
+        IOException error = null;
+        try {
+            snapshot.write();
+            journal.clear();
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (lock) {
+            isSnapshotPending = false;
+            if (error == null) {
+                journalBytes = 0;
+                for (String record : pending) {
+                    journalBytes += record.length() + 1;
+                }
+            } else {
+                failure = error;
+                covered.addAll(pending); // the journal still has to carry these changes
+                pending = covered;
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Blocks until every record queued before this call has been written to the journal and synced to disk, or
+     * been made redundant by a snapshot.
+     *
+     * @throws IOException If the records could not be written, or the wait was interrupted.
+     */
+    public void awaitDurable() throws IOException {
+        runOnWriter(this::drain);
+        synchronized (lock) {
+            if (!pending.isEmpty()) {
+                IOException e = failure != null ? failure : new IOException("Journal records could not be written");
+                failure = null;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns and forgets the most recent background write failure.
+     *
+     * @return The failure, or {@code null} if every write since the last call succeeded.
+     */
+    public IOException pollFailure() {
+        synchronized (lock) {
+            IOException e = failure;
+            failure = null;
+            return e;
+        }
+    }
+
+    /**
+     * Returns the number of batches written to the journal so far.
+     *
+     * @return The number of successful journal writes.
+     */
+    public long getWriteCount() {
+        synchronized (lock) {
+            return writeCount;
+        }
+    }
+
+    private void runOnWriter(Runnable action) throws IOException {
+        Future<?> done = executor.submit(action);
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Journal writer failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import task.Task;
+import task.TaskMap;
+
+/**
+ * The {@code SegmentedTaskMap} class is a task map whose entries are partitioned by name hash into segment files,
+ * with a small manifest recording how many segments there are and how many tasks each one holds.
+ * <p>
+ * Opening the map only reads the manifest. A segment is read the first time one of its tasks is looked up,
+ * added or removed, or when an iteration reaches it, so startup time and memory stay flat however large the
+ * list grows, and only the segments that were actually touched are resident. Every segment file is accompanied
+ * by a key file listing just its task names, so iterating over {@link #keySet()} reads names without loading
+ * any segment.
+ * <p>
+ * Changes mark their segment dirty. {@link #captureDirtySegments()} copies just the dirty segments so that
+ * {@link PersistenceService} can rewrite those files (and the manifest) in the background. When the average
+ * segment grows past {@link #SEGMENT_CAPACITY} tasks, the number of segments is doubled at the next capture;
+ * segment file names include the segment count, so the files of the previous layout stay valid until the new
+ * manifest is in place.
+ */
+public class SegmentedTaskMap extends AbstractMap<String, Task> {
+    /**
+     * The name of the manifest file inside the segment directory.
+     */
+    public static final String MANIFEST_NAME = "manifest";
+    /**
+     * The target number of tasks per segment.
+     */
+    public static final int SEGMENT_CAPACITY = 4096;
+
+    private static final String MANIFEST_HEADER = "sigmabot-segments 1";
+    private static final int INITIAL_SEGMENT_COUNT = 16;
+
+    private final Path directory;
+    private final TaskFileFormat format;
+    private final ListMapWriter writer = new ListMapWriter();
+    private final boolean isNew;
+
+    private int segmentCount;
+    private int[] counts;
+    private List<Map<String, Task>> segments;
+    /**
+     * The names in each segment that is not loaded, once read from its key file.
+     */
+    private List<List<String>> keyLists;
+    private int size;
+    /**
+     * Segments changed since the last capture. Written back by the persistence thread when a snapshot fails.
+     */
+    private final Set<Integer> dirtySegments = ConcurrentHashMap.newKeySet();
+    /**
+     * Segment counts of earlier layouts whose files can be deleted once a newer manifest has been written.
+     */
+    private final Set<Integer> staleLayouts = ConcurrentHashMap.newKeySet();
+
+    private SegmentedTaskMap(Path directory, TaskFileFormat format, boolean isNew, int[] counts) {
+        this.directory = directory;
+        this.format = format;
+        this.isNew = isNew;
+        this.segmentCount = counts.length;
+        this.counts = counts;
+        this.segments = new ArrayList<>();
+        this.keyLists = new ArrayList<>();
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(null);
+            keyLists.add(null);
+            size += counts[i];
+        }
+    }
+
+    /**
+     * Opens the segmented store in the given directory, reading only its manifest. The directory is created
+     * if it does not exist yet.
+     *
+     * @param directory The directory holding the manifest and segment files.
+     * @param format    The format segment files are written in. Existing segments are read in either format.
+     * @return The segmented task map.
+     * @throws IOException If the directory cannot be created or the manifest cannot be read.
+     */
+    public static SegmentedTaskMap open(String directory, TaskFileFormat format) throws IOException {
+        Path path = Path.of(directory);
+        Files.createDirectories(path);
+        Path manifest = path.resolve(MANIFEST_NAME);
+        if (!Files.exists(manifest)) {
+            return new SegmentedTaskMap(path, format, true, new int[INITIAL_SEGMENT_COUNT]);
+        }
+        try (BufferedReader br = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(br.readLine())) {
+                throw new IOException("Unsupported segment manifest: " + manifest);
+            }
+            int[] counts = new int[Integer.parseInt(br.readLine().trim())];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = Integer.parseInt(br.readLine().trim());
+            }
+            return new SegmentedTaskMap(path, format, false, counts);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IOException("Corrupt segment manifest: " + manifest, e);
+        }
+    }
+
+    /**
+     * Returns whether the store had no manifest when it was opened.
+     *
+     * @return {@code true} if the store was created by {@link #open}.
+     */
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Returns the path of the manifest, which is also the snapshot path the store's journal belongs to.
+     *
+     * @return The path of the manifest file.
+     */
+    public String getManifestPath() {
+        return directory.resolve(MANIFEST_NAME).toString();
+    }
+
+    /**
+     * Returns the number of segments currently held in memory.
+     *
+     * @return The number of loaded segments.
+     */
+    public int getLoadedSegmentCount() {
+        int loaded = 0;
+        for (Map<String, Task> segment : segments) {
+            loaded += segment == null ? 0 : 1;
+        }
+        return loaded;
+    }
+
+    private static int segmentOf(Object key, int segmentCount) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), segmentCount);
+    }
+
+    private Path segmentPath(int layout, int index) {
+        return directory.resolve("segment-" + layout + "-" + index + ".dat");
+    }
+
+    private Path keysPath(int layout, int index) {
+        return directory.resolve("segment-" + layout + "-" + index + ".keys");
+    }
+
+    /**
+     * Returns the names in the given segment: the loaded segment's own key set, or else the names from its key
+     * file. A key file that is missing, unreadable or disagrees with the manifest count (as after an interrupted
+     * save) is not trusted, and the segment is loaded instead.
+     */
+    private Collection<String> segmentKeys(int index) {
+        if (segments.get(index) != null) {
+            return segments.get(index).keySet();
+        }
+        if (keyLists.get(index) != null) {
+            return keyLists.get(index);
+        }
+        Path path = keysPath(segmentCount, index);
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                int count = in.readInt();
+                if (count == counts[index]) {
+                    List<String> names = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        names.add(in.readUTF());
+                    }
+                    keyLists.set(index, names);
+                    return names;
+                }
+            } catch (IOException e) {
+                // falls through to loading the segment
+            }
+        }
+        return segment(index).keySet();
+    }
+
+    private static void writeKeys(Set<String> names, String path) throws IOException {
+        ListMapWriter.writeAtomically(path, out -> {
+            DataOutputStream keys = new DataOutputStream(new BufferedOutputStream(out));
+            keys.writeInt(names.size());
+            for (String name : names) {
+                keys.writeUTF(name);
+            }
+            keys.flush();
+        });
+    }
+
+    /**
+     * Returns the given segment, reading it from disk on first access.
+     */
+    private Map<String, Task> segment(int index) {
+        Map<String, Task> segment = segments.get(index);
+        if (segment == null) {
+            Path path = segmentPath(segmentCount, index);
+            try {
+                segment = Files.exists(path) ? new MappedTaskLoader().load(path.toString()) : new HashMap<>();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read task segment " + path, e);
+            }
+            size += segment.size() - counts[index]; // trust the segment over a manifest from an interrupted save
+            counts[index] = segment.size();
+            segments.set(index, segment);
+            keyLists.set(index, null);
+        }
+        return segment;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(Object key) {
+        return key instanceof String ? segment(segmentOf(key, segmentCount)).get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && segment(segmentOf(key, segmentCount)).containsKey(key);
+    }
+
+    @Override
+    public Task put(String key, Task task) {
+        int index = segmentOf(key, segmentCount);
+        Task previous = segment(index).put(key, task);
+        if (previous == null) {
+            counts[index]++;
+            size++;
+        }
+        dirtySegments.add(index);
+        return previous;
+    }
+
+    @Override
+    public Task remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int index = segmentOf(key, segmentCount);
+        Task previous = segment(index).remove(key);
+        if (previous != null) {
+            counts[index]--;
+            size--;
+            dirtySegments.add(index);
+        }
+        return previous;
+    }
+
+    /**
+     * Marks the segment holding the given task dirty after the task itself was modified in place,
+     * for example marked done, so that the change is written with the next snapshot.
+     *
+     * @param key The name the task is stored under.
+     */
+    public void markChanged(String key) {
+        int index = segmentOf(key, segmentCount);
+        if (segment(index).containsKey(key)) {
+            dirtySegments.add(index);
+        }
+    }
+
+    /**
+     * Wraps the store in a {@link TaskMap} that marks a task's segment dirty whenever the task is marked done or
+     * undone in place. Changes, including journal replays, must go through the returned map, or a status change
+     * would never reach a snapshot.
+     *
+     * @return The task map over this store.
+     */
+    public TaskMap asTaskMap() {
+        TaskMap taskMap = new TaskMap(this);
+        taskMap.addListener(new TaskMap.Listener() {
+            @Override
+            public void taskStatusChanged(Task task) {
+                markChanged(task.getName()); // changed in place, so its segment must be rewritten
+            }
+        });
+        return taskMap;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < segmentCount; i++) {
+            segments.set(i, new HashMap<>());
+            counts[i] = 0;
+            dirtySegments.add(i);
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the task names, read from the key files of segments that are not loaded, so iterating them loads
+     * no segment unless its key file is missing or out of date.
+     *
+     * @return A view of the task names.
+     */
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new KeyIterator();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the names segment by segment, reading each segment's key file when the iteration reaches it.
+     */
+    private class KeyIterator implements Iterator<String> {
+        private int index = -1;
+        private Iterator<String> current = null;
+        private boolean isCurrentLoaded;
+        private String currentKey;
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (index + 1 >= segmentCount) {
+                    return false;
+                }
+                index++;
+                Collection<String> keys = segmentKeys(index);
+                isCurrentLoaded = segments.get(index) != null;
+                current = keys.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            currentKey = current.next();
+            return currentKey;
+        }
+
+        @Override
+        public void remove() {
+            if (currentKey == null) {
+                throw new IllegalStateException();
+            }
+            if (isCurrentLoaded) {
+                current.remove(); // iterating the loaded segment itself
+                counts[index]--;
+                size--;
+                dirtySegments.add(index);
+            } else {
+                // The key list is a copy, so the segment can be loaded and changed under it
+                keyLists.set(index, null);
+                SegmentedTaskMap.this.remove(currentKey);
+            }
+            currentKey = null;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Task>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Task>> iterator() {
+                return new SegmentIterator();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the segments in order, reading each one only when the iteration reaches it.
+     */
+    private class SegmentIterator implements Iterator<Map.Entry<String, Task>> {
+        private int index = -1;
+        private Iterator<Map.Entry<String, Task>> current = null;
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (index + 1 >= segmentCount) {
+                    return false;
+                }
+                index++;
+                current = segment(index).entrySet().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<String, Task> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            current.remove();
+            counts[index]--;
+            size--;
+            dirtySegments.add(index);
+        }
+    }
+
+    /**
+     * Copies the segments changed since the last capture and returns a snapshot that rewrites their files and
+     * the manifest. Doubles the number of segments first if they have outgrown {@link #SEGMENT_CAPACITY}.
+     * If writing the snapshot fails, the segments are marked dirty again.
+     *
+     * @return The snapshot to write on the persistence thread.
+     */
+    public SnapshotWriter.Snapshot captureDirtySegments() {
+        growIfNeeded();
+        List<Integer> indexes = new ArrayList<>(dirtySegments);
+        dirtySegments.removeAll(indexes);
+        List<Map<String, Task>> copies = new ArrayList<>();
+        for (int index : indexes) {
+            copies.add(SnapshotWriter.copyTasks(segment(index)));
+        }
+        int layout = segmentCount;
+        int[] countsCopy = counts.clone();
+        List<Integer> stale = new ArrayList<>(staleLayouts);
+        staleLayouts.removeAll(stale);
+        return () -> {
+            try {
+                for (int i = 0; i < indexes.size(); i++) {
+                    writer.writeSnapshot(copies.get(i), segmentPath(layout, indexes.get(i)).toString(), format);
+                    writeKeys(copies.get(i).keySet(), keysPath(layout, indexes.get(i)).toString());
+                }
+                writeManifest(countsCopy);
+            } catch (IOException e) {
+                dirtySegments.addAll(indexes);
+                staleLayouts.addAll(stale);
+                throw e;
+            }
+            for (int oldLayout : stale) {
+                for (int i = 0; i < oldLayout; i++) {
+                    Files.deleteIfExists(segmentPath(oldLayout, i));
+                    Files.deleteIfExists(keysPath(oldLayout, i));
+                }
+            }
+        };
+    }
+
+    private void growIfNeeded() {
+        if (size <= segmentCount * SEGMENT_CAPACITY) {
+            return;
+        }
+        int newCount = segmentCount;
+        while (size > newCount * SEGMENT_CAPACITY) {
+            newCount *= 2;
+        }
+        List<Map<String, Task>> newSegments = new ArrayList<>();
+        for (int i = 0; i < newCount; i++) {
+            newSegments.add(new HashMap<>());
+        }
+        int[] newCounts = new int[newCount];
+        for (int i = 0; i < segmentCount; i++) {
+            for (Map.Entry<String, Task> entry : segment(i).entrySet()) {
+                int index = segmentOf(entry.getKey(), newCount);
+                newSegments.get(index).put(entry.getKey(), entry.getValue());
+                newCounts[index]++;
+            }
+        }
+        staleLayouts.add(segmentCount);
+        segmentCount = newCount;
+        segments = newSegments;
+        counts = newCounts;
+        keyLists = new ArrayList<>();
+        for (int i = 0; i < newCount; i++) {
+            keyLists.add(null);
+        }
+        for (int i = 0; i < newCount; i++) {
+            dirtySegments.add(i);
+        }
+    }
+
+    private void writeManifest(int[] segmentCounts) throws IOException {
+        ListMapWriter.writeAtomically(getManifestPath(), out -> {
+            BufferedWriter manifest = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            manifest.write(MANIFEST_HEADER);
+            manifest.newLine();
+            manifest.write(Integer.toString(segmentCounts.length));
+            manifest.newLine();
+            for (int count : segmentCounts) {
+                manifest.write(Integer.toString(count));
+                manifest.newLine();
+            }
+            manifest.flush();
+        });
+    }
+}
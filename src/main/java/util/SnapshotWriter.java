@@ -0,0 +1,69 @@
+package util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import task.Task;
+
+/**
+ * The {@code SnapshotWriter} interface describes how {@link PersistenceService} turns the current tasks into a
+ * durable snapshot once the journal is compacted.
+ * <p>
+ * Capturing happens on the thread that mutates the tasks and must copy whatever the snapshot needs, because the
+ * returned {@link Snapshot} is written later on the persistence thread while the tasks keep changing.
+ */
+@FunctionalInterface
+public interface SnapshotWriter {
+
+    /**
+     * A captured snapshot, ready to be written.
+     */
+    @FunctionalInterface
+    interface Snapshot {
+        /**
+         * Writes the snapshot to disk.
+         *
+         * @throws IOException If the snapshot could not be written.
+         */
+        void write() throws IOException;
+    }
+
+    /**
+     * Captures the state that has to be written for a snapshot of the given tasks.
+     *
+     * @param taskList The current tasks.
+     * @return The snapshot to write on the persistence thread.
+     */
+    Snapshot capture(Map<String, Task> taskList);
+
+    /**
+     * Copies the given tasks, task by task, so that the copy can be written on the persistence thread while the
+     * originals keep changing.
+     *
+     * @param taskList The tasks to copy.
+     * @return A new map holding a {@link Task#copy()} of every task, under the same keys.
+     */
+    static Map<String, Task> copyTasks(Map<String, Task> taskList) {
+        Map<String, Task> copy = new HashMap<>(Math.max(16, (int) (taskList.size() / 0.75f) + 1));
+        for (Map.Entry<String, Task> entry : taskList.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a snapshot writer that copies the whole task map and atomically rewrites a single file with it.
+     *
+     * @param filePath The path of the snapshot file.
+     * @param format   The format to write the file in.
+     * @return The snapshot writer.
+     */
+    static SnapshotWriter toFile(String filePath, TaskFileFormat format) {
+        ListMapWriter writer = new ListMapWriter();
+        return taskList -> {
+            Map<String, Task> copy = copyTasks(taskList);
+            return () -> writer.writeSnapshot(copy, filePath, format);
+        };
+    }
+}
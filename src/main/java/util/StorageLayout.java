@@ -0,0 +1,45 @@
+package util;
+
+/**
+ * The {@code StorageLayout} enum lists the ways tasks can be laid out on disk.
+ */
+public enum StorageLayout {
+
+    /**
+     * Every task lives in a single snapshot file, which is read fully at startup.
+     */
+    SINGLE_FILE,
+
+    /**
+     * Like {@link #SINGLE_FILE}, but startup only indexes the file and tasks are decoded on first access,
+     * see {@link LazyTaskMap}.
+     */
+    LAZY,
+
+    /**
+     * Tasks are partitioned into segment files described by a manifest, see {@link SegmentedTaskMap}.
+     * Only the segments that are actually accessed are read.
+     */
+    SEGMENTED;
+
+    /**
+     * The system property used to pick the layout, e.g. {@code -Dsigmabot.storage=segmented}.
+     */
+    public static final String LAYOUT_PROPERTY = "sigmabot.storage";
+
+    /**
+     * Returns the layout named by the {@value #LAYOUT_PROPERTY} system property, falling back to
+     * {@link #SINGLE_FILE} when the property is missing or unrecognised.
+     *
+     * @return The configured storage layout.
+     */
+    public static StorageLayout fromSystemProperty() {
+        String name = System.getProperty(LAYOUT_PROPERTY, "single_file");
+        for (StorageLayout layout : values()) {
+            if (layout.name().equalsIgnoreCase(name)) {
+                return layout;
+            }
+        }
+        return SINGLE_FILE;
+    }
+}
@@ -0,0 +1,41 @@
+package util;
+
+/**
+ * The {@code TaskFileFormat} enum lists the on-disk formats a task snapshot can be written in.
+ * <p>
+ * {@link ListReader#readTasksFromFile(String)} detects the format of an existing file by itself,
+ * so the format only has to be chosen when writing.
+ */
+public enum TaskFileFormat {
+
+    /**
+     * The human-readable multi-line format produced by {@code Task.toString()}.
+     */
+    TEXT,
+
+    /**
+     * The compact, length-prefixed format described in {@link BinaryTaskFormat}.
+     */
+    BINARY;
+
+    /**
+     * The system property used to pick the format for writing snapshots, e.g. {@code -Dsigmabot.format=binary}.
+     */
+    public static final String FORMAT_PROPERTY = "sigmabot.format";
+
+    /**
+     * Returns the format named by the {@value #FORMAT_PROPERTY} system property,
+     * falling back to {@link #TEXT} when the property is missing or unrecognised.
+     *
+     * @return The configured snapshot format.
+     */
+    public static TaskFileFormat fromSystemProperty() {
+        String name = System.getProperty(FORMAT_PROPERTY, "text");
+        for (TaskFileFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return TEXT;
+    }
+}
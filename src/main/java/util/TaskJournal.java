@@ -0,0 +1,310 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+import task.Deadline;
+import task.Event;
+import task.Task;
+import task.Todo;
+
+/**
+ * The {@code TaskJournal} class is an append-only log of task mutations that sits next to the task snapshot file.
+ * <p>
+ * Instead of rewriting the whole snapshot whenever a task is added, marked, unmarked or deleted, a single
+ * small record describing the change is appended to the journal, so each mutation costs O(1) in the size
+ * of the task list. On startup the snapshot is read first and the journal is then replayed on top of it.
+ * Once a fresh snapshot has been written, the journal can be cleared.
+ * <p>
+ * Every record occupies exactly one line, with fields separated by tabs:
+ * <ul>
+ *   <li>{@code A  type  done  name  description  [dates and location]} for an added task</li>
+ *   <li>{@code M  name} for a task marked done</li>
+ *   <li>{@code U  name} for a task marked undone</li>
+ *   <li>{@code R  name} for a removed task</li>
+ * </ul>
+ * Tabs, line breaks and backslashes inside fields are escaped so that a record never spans more than one line.
+ */
+public class TaskJournal {
+    /**
+     * The suffix appended to the snapshot path to obtain the journal path.
+     */
+    public static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private final String snapshotPath;
+    private final String journalPath;
+
+    /**
+     * Constructs a journal that belongs to the given snapshot file.
+     *
+     * @param snapshotPath The path of the snapshot file the journal is applied on top of.
+     */
+    public TaskJournal(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        this.journalPath = snapshotPath + JOURNAL_SUFFIX;
+    }
+
+    /**
+     * Returns the path of the snapshot file the journal belongs to.
+     *
+     * @return The path of the snapshot file.
+     */
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * Returns the current size of the journal file.
+     *
+     * @return The size of the journal in bytes, or 0 if it does not exist.
+     */
+    public long size() {
+        return new File(journalPath).length();
+    }
+
+    /**
+     * Returns the path of the journal file.
+     *
+     * @return The path of the journal file.
+     */
+    public String getJournalPath() {
+        return journalPath;
+    }
+
+    /**
+     * Appends a record for a newly added task.
+     *
+     * @param task The task that was added.
+     * @throws IOException If the record cannot be appended.
+     */
+    public void appendAdd(Task task) throws IOException {
+        append(encodeAdd(task));
+    }
+
+    /**
+     * Appends a record for a task that was marked done.
+     *
+     * @param name The name of the task.
+     * @throws IOException If the record cannot be appended.
+     */
+    public void appendMark(String name) throws IOException {
+        append(encodeNamed('M', name));
+    }
+
+    /**
+     * Appends a record for a task that was marked undone.
+     *
+     * @param name The name of the task.
+     * @throws IOException If the record cannot be appended.
+     */
+    public void appendUnmark(String name) throws IOException {
+        append(encodeNamed('U', name));
+    }
+
+    /**
+     * Appends a record for a task that was removed.
+     *
+     * @param name The key under which the task was stored.
+     * @throws IOException If the record cannot be appended.
+     */
+    public void appendDelete(String name) throws IOException {
+        append(encodeNamed('R', name));
+    }
+
+    /**
+     * Replays every record of the journal onto the given task map, in the order the records were written.
+     * A record that cannot be decoded (for example, a line torn by a crash during an append) is skipped.
+     *
+     * @param taskList The task map loaded from the snapshot, which is updated in place.
+     * @throws IOException If the journal exists but cannot be read.
+     */
+    public void replay(Map<String, Task> taskList) throws IOException {
+        File journalFile = new File(journalPath);
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    applyRecord(line, taskList);
+                }
+            }
+        }
+    }
+
+    /**
+     * Empties the journal. This should only be called after a snapshot containing every journaled change
+     * has been written.
+     *
+     * @throws IOException If the journal cannot be truncated.
+     */
+    public void clear() throws IOException {
+        File journalFile = new File(journalPath);
+        if (journalFile.exists()) {
+            new FileWriter(journalFile).close(); // opening without append mode truncates the file
+        }
+    }
+
+    /**
+     * Appends a batch of already encoded records with a single write, and waits until the records are on disk
+     * rather than only handed to the operating system.
+     *
+     * @param records The records to append, in order, without trailing line breaks.
+     * @throws IOException If the records cannot be appended or synced.
+     */
+    void appendAll(List<String> records) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(journalPath, true)) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out));
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+            writer.flush();
+            out.getFD().sync(); // one sync per batch, so group commit also saves syncs
+        }
+    }
+
+    private void append(String record) throws IOException {
+        appendAll(List.of(record));
+    }
+
+    /**
+     * Encodes an add record for the given task, without the trailing line break.
+     *
+     * @param task The task to encode.
+     * @return The encoded record.
+     */
+    static String encodeAdd(Task task) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('A').append(FIELD_SEPARATOR);
+        if (task instanceof Deadline) {
+            sb.append('D');
+        } else if (task instanceof Event) {
+            sb.append('E');
+        } else {
+            sb.append('T');
+        }
+        sb.append(FIELD_SEPARATOR).append(task.isDone() ? '1' : '0');
+        appendField(sb, task.getName());
+        appendField(sb, task.getDescription());
+        if (task instanceof Deadline deadline) {
+            appendField(sb, deadline.getByTime().toString());
+        } else if (task instanceof Event event) {
+            appendField(sb, event.getStartTime().toString());
+            appendField(sb, event.getEndTime().toString());
+            appendField(sb, event.getLocation());
+        }
+        return sb.toString();
+    }
+
+    static String encodeNamed(char op, String name) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(op);
+        appendField(sb, name);
+        return sb.toString();
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        sb.append(FIELD_SEPARATOR);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\' -> sb.append("\\\\");
+            case '\t' -> sb.append("\\t");
+            case '\n' -> sb.append("\\n");
+            case '\r' -> sb.append("\\r");
+            default -> sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Applies a single journal record to the task map.
+     *
+     * @param record   The record, without the trailing line break.
+     * @param taskList The task map to update.
+     */
+    static void applyRecord(String record, Map<String, Task> taskList) {
+        String[] fields = record.split("\t", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = unescape(fields[i]);
+        }
+        try {
+            switch (fields[0]) {
+            case "A" -> {
+                Task task = decodeTask(fields);
+                taskList.put(task.getName(), task);
+            }
+            case "M" -> {
+                Task task = taskList.get(fields[1]);
+                if (task != null) {
+                    task.markDone();
+                }
+            }
+            case "U" -> {
+                Task task = taskList.get(fields[1]);
+                if (task != null) {
+                    task.markUndone();
+                }
+            }
+            case "R" -> taskList.remove(fields[1]);
+            default -> System.out.println("Unknown journal record: " + record);
+            }
+        } catch (ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            System.out.println("Skipping malformed journal record: " + record);
+        }
+    }
+
+    private static Task decodeTask(String[] fields) {
+        boolean isDone = fields[2].equals("1");
+        String name = fields[3];
+        String description = fields[4];
+        switch (fields[1]) {
+        case "D" -> {
+            return new Deadline(name, description, LocalDate.parse(fields[5]), isDone);
+        }
+        case "E" -> {
+            return new Event(name, description, LocalDate.parse(fields[5]), LocalDate.parse(fields[6]),
+                    fields[7], isDone);
+        }
+        default -> {
+            return new Todo(name, description, isDone);
+        }
+        }
+    }
+
+    private static String unescape(String field) {
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                switch (next) {
+                case 't' -> sb.append('\t');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                default -> sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import ui.AvatarCache;
+
+/**
+ * Measures the cost of giving each chat message its avatar, decoding the JPEG for every message as the chat area
+ * used to, against sharing the images from {@link AvatarCache}.
+ * <p>
+ * This is not a unit test; run it with the test classpath, for example from an IDE, and pass the number of
+ * messages as the only argument (default 500). It prints the time per message and the decoded pixel memory held
+ * by the message views.
+ */
+public class AvatarCacheBenchmark {
+    private static final String[] AVATARS = {AvatarCache.USER_AVATAR, AvatarCache.BOT_AVATAR};
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        Platform.startup(() -> { });
+        try {
+            run("decode per message", messages, false); // warm-up
+            run("shared cache", messages, true);
+            run("decode per message", messages, false);
+            run("shared cache", messages, true);
+        } finally {
+            Platform.exit();
+        }
+    }
+
+    private static void run(String label, int messages, boolean isCached) {
+        List<ImageView> views = new ArrayList<>(messages);
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            String avatar = AVATARS[i % 2];
+            Image image = isCached
+                    ? AvatarCache.get(avatar)
+                    : new Image(AvatarCacheBenchmark.class.getResourceAsStream(avatar));
+            ImageView view = new ImageView(image);
+            view.setFitWidth(AvatarCache.AVATAR_SIZE);
+            view.setFitHeight(AvatarCache.AVATAR_SIZE);
+            views.add(view);
+        }
+        long elapsed = System.nanoTime() - start;
+        long pixelBytes = views.stream()
+                .map(ImageView::getImage)
+                .distinct()
+                .mapToLong(image -> (long) image.getWidth() * (long) image.getHeight() * 4)
+                .sum();
+        System.out.printf("%-20s %8.1f us/message, %8d KiB of decoded pixels%n", label,
+                elapsed / 1000.0 / messages, pixelBytes / 1024);
+    }
+}
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import logic.ChatBotLogic;
+
+public class ChatBotLogicTest {
+    private static final Pattern RENDERED_TODO = Pattern.compile("\\[T] \\[ ] task\\d\\d\n");
+
+    private String originalHome;
+    private File home;
+    private ChatBotLogic logic;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        originalHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("sigmabot").toFile();
+        System.setProperty("user.home", home.getAbsolutePath());
+        logic = new ChatBotLogic();
+        logic.readInput("list");
+        logic.readInput("add");
+        for (int i = 0; i < 25; i++) {
+            logic.readInput("todo");
+            logic.readInput(String.format("task%02d", i));
+            logic.readInput("description " + i);
+        }
+        logic.readInput("back");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setProperty("user.home", originalHome);
+        File[] files = home.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        home.delete();
+    }
+
+    @Test
+    public void testPageHintKeepsPageSize() {
+        String page = logic.readInput("page 2 10");
+        assertEquals(10, countTasks(page));
+        assertTrue(page.endsWith("more: page 3 10"), page);
+
+        String last = logic.readInput("page 3 10");
+        assertEquals(5, countTasks(last));
+        assertFalse(last.contains("more:"), last);
+    }
+
+    @Test
+    public void testPagesCoverEveryTaskOnce() {
+        StringBuilder all = new StringBuilder();
+        for (int page = 1; page <= 4; page++) {
+            all.append(logic.readInput("page " + page + " 7"));
+        }
+        assertEquals(25, countTasks(all.toString()));
+        for (int i = 0; i < 25; i++) {
+            assertEquals(1, all.toString().split(String.format("] task%02d\n", i), -1).length - 1);
+        }
+    }
+
+    @Test
+    public void testViewShowsEveryTaskWithoutHint() {
+        String view = logic.readInput("view");
+        assertEquals(25, countTasks(view));
+        assertFalse(view.contains("more:"), view);
+    }
+
+    private static int countTasks(String reply) {
+        int count = 0;
+        for (Matcher matcher = RENDERED_TODO.matcher(reply); matcher.find(); ) {
+            count++;
+        }
+        return count;
+    }
+}
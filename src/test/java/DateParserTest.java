@@ -1,7 +1,10 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
+
 import org.junit.jupiter.api.Test;
 
 import util.DateParser;
@@ -71,4 +74,36 @@ public class DateParserTest {
         assertTrue(exception2.getMessage().contains("Invalid date format"),
                 "Expected exception message to contain 'Invalid date format' but got: " + exception2.getMessage());
     }
+
+    /**
+     * Tests that the direct LocalDate parser agrees with the string parser, on both valid and invalid input.
+     */
+    @Test
+    public void testParseLocalDateAgreesWithParseDate() {
+        String[] inputs = {
+            "1/FEB/2099", "01/FEB/2099", "31/dec/2024", "29/Feb/2024", "29/FEB/2023", "0/JAN/2024", "7/JUL/0001",
+            "1/FEB/-2099", "1/FEB/20999", "1/FE/2099", "001/FEB/2099", "1/ABC/2099", "31/DEC", "1-FEB-2099",
+            " 1/FEB/2099", "1/FEB/2O99", "1/\u017FEP/2099",
+        };
+        for (String input : inputs) {
+            String expected;
+            try {
+                expected = DateParser.parseDate(input);
+            } catch (IllegalArgumentException e) {
+                assertThrows(IllegalArgumentException.class, () -> DateParser.parseLocalDate(input));
+                continue;
+            }
+            assertEquals(LocalDate.parse(expected), DateParser.parseLocalDate(input), input);
+        }
+    }
+
+    /**
+     * Tests that repeated dates are served from the cache.
+     */
+    @Test
+    public void testRepeatedDatesAreCached() {
+        LocalDate first = DateParser.parseLocalDate("14/MAR/2099");
+        assertSame(first, DateParser.parseLocalDate("14/mar/2099"));
+        assertSame(first, DateParser.cachedDate(2099, 3, 14));
+    }
 }
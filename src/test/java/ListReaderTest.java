@@ -1,12 +1,19 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,8 +22,14 @@ import org.junit.jupiter.api.Test;
 import task.Deadline;
 import task.Event;
 import task.Task;
+import task.TaskMap;
 import task.Todo;
+import util.LazyTaskMap;
+import util.ListMapWriter;
 import util.ListReader;
+import util.MappedTaskLoader;
+import util.TaskFileFormat;
+import util.TaskJournal;
 
 
 public class ListReaderTest {
@@ -113,6 +126,222 @@ public class ListReaderTest {
         assertEquals("Somewhere", ((Event) task).getLocation());
     }
 
+    @Test
+    public void testReadTasksWithJournal() throws Exception {
+        String content = "[T] [ ] a\n\tDescription: b\n[T] [ ] c\n\tDescription: d";
+        writeToFile(tempFile, content);
+        TaskJournal journal = new TaskJournal(tempFile.getAbsolutePath());
+        journal.appendAdd(new Deadline("x", "y", LocalDate.of(2099, 2, 1)));
+        journal.appendMark("a");
+        journal.appendDelete("c");
+
+        try {
+            ListReader listReader = new ListReader();
+            Map<String, Task> tasks = listReader.readTasksWithJournal(tempFile.getAbsolutePath());
+
+            assertEquals(2, tasks.size());
+            assertTrue(tasks.get("a").isDone());
+            assertFalse(tasks.containsKey("c"));
+            assertTrue(tasks.get("x") instanceof Deadline);
+            assertEquals(LocalDate.of(2099, 2, 1), ((Deadline) tasks.get("x")).getByTime());
+        } finally {
+            new File(journal.getJournalPath()).delete();
+        }
+    }
+
+    @Test
+    public void testReadBinaryTasks() throws Exception {
+        Map<String, Task> written = new HashMap<>();
+        written.put("a", new Todo("a", "b", true));
+        written.put("d", new Deadline("d", "desc", LocalDate.of(2099, 2, 1)));
+        written.put("caf\u00e9", new Event("caf\u00e9", "multi\nline",
+                LocalDate.of(2099, 1, 1), LocalDate.of(2099, 1, 2), "Somewhere"));
+        assertTrue(new ListMapWriter().writeMapToFile(written, tempFile.getAbsolutePath(), TaskFileFormat.BINARY));
+
+        ListReader listReader = new ListReader();
+        assertEquals(TaskFileFormat.BINARY, listReader.detectFormat(tempFile.getAbsolutePath()));
+        Map<String, Task> tasks = listReader.readTasksFromFile(tempFile.getAbsolutePath());
+
+        assertEquals(3, tasks.size());
+        assertTrue(tasks.get("a") instanceof Todo);
+        assertTrue(tasks.get("a").isDone());
+        assertEquals(LocalDate.of(2099, 2, 1), ((Deadline) tasks.get("d")).getByTime());
+        Event event = (Event) tasks.get("caf\u00e9");
+        assertEquals("multi\nline", event.getDescription());
+        assertEquals(LocalDate.of(2099, 1, 2), event.getEndTime());
+        assertEquals("Somewhere", event.getLocation());
+    }
+
+    @Test
+    public void testMappedLoaderMatchesListReader() throws Exception {
+        String[] fixtures = {
+            "[T] [ ] a\n\tDescription: b",
+            "[T] [X] a\n\tDescription: b",
+            "[D] [ ] d\n\tDescription: desc\n\tBy: 01/FEB/2099",
+            "[E] [ ] e\n\tDescription: desc\n\tStart Time: "
+                    + "01/JAN/2099\n\tEnd Time: 02/JAN/2099\n\tLocation: Somewhere",
+            "[T] [ ] a\r\n\tDescription: b\r\n\r\n[D] [X] [urgent] d \r\n  Description:  desc  \r\n"
+                    + "\tBy: 1/feb/2099\r\n[E] [ ] caf\u00e9\n\tnote Description: x\n\tStart Time: 1/JAN/2099\n"
+                    + "\tEnd Time: 31/DEC/2099\n\tLocation: \n",
+        };
+        for (String content : fixtures) {
+            writeToFile(tempFile, content);
+            Map<String, Task> expected = new ListReader().readTasksFromFile(tempFile.getAbsolutePath());
+            Map<String, Task> actual = new MappedTaskLoader().load(tempFile.getAbsolutePath());
+            assertSameTasks(expected, actual);
+        }
+    }
+
+    @Test
+    public void testParallelLoadMatchesListReader() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            content.append("[T] [ ] todo").append(i % 30000).append("\n\tDescription: version ").append(i).append('\n');
+            content.append("[D] [X] deadline").append(i).append("\r\n\tDescription: d\r\n\tBy: 1/feb/2099\r\n\r\n");
+        }
+        writeToFile(tempFile, content.toString());
+
+        Map<String, Task> expected = new ListReader().readTasksFromFile(tempFile.getAbsolutePath());
+        Map<String, Task> actual = new MappedTaskLoader(4).load(tempFile.getAbsolutePath());
+        // Duplicate names must resolve to the last occurrence, as in a sequential load
+        assertEquals("version 39999", actual.get("todo9999").getDescription());
+        assertSameTasks(expected, actual);
+    }
+
+    @Test
+    public void testParallelLoadFallsBackWhenChunkStartsMidRecord() throws Exception {
+        // Each description line looks like a deadline header, and long names make the chunk cuts land on them
+        String padding = "x".repeat(150);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("[T] [ ] todo").append(i).append(padding).append("\n[D] Description: d\n");
+        }
+        writeToFile(tempFile, content.toString());
+
+        Map<String, Task> expected = new ListReader().readTasksFromFile(tempFile.getAbsolutePath());
+        Map<String, Task> actual = new MappedTaskLoader(4).load(tempFile.getAbsolutePath());
+        assertEquals(20000, actual.size());
+        assertSameTasks(expected, actual);
+    }
+
+    @Test
+    public void testCorruptBinaryFileIsReportedAsIOException() throws Exception {
+        Map<String, Task> saved = new HashMap<>();
+        saved.put("a", new Todo("a", "first"));
+        saved.put("d", new Deadline("d", "second", LocalDate.of(2099, 2, 1)));
+        saved.put("e", new Event("e", "third", LocalDate.of(2099, 1, 1), LocalDate.of(2099, 1, 2), "here"));
+        new ListMapWriter().writeMapToFile(saved, tempFile.getAbsolutePath(), TaskFileFormat.BINARY);
+        byte[] bytes = Files.readAllBytes(tempFile.toPath());
+
+        // Every truncation that keeps the magic header, so the file is still recognised as binary
+        for (int length = 5; length < bytes.length; length++) {
+            Files.write(tempFile.toPath(), Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> new ListReader().readTasksWithJournal(tempFile.getAbsolutePath()));
+            assertThrows(IOException.class, () -> LazyTaskMap.open(tempFile.getAbsolutePath()));
+        }
+        // A string length far beyond the end of the file
+        byte[] corrupt = bytes.clone();
+        ByteBuffer.wrap(corrupt).putInt(9 + Integer.BYTES + 2, Integer.MAX_VALUE);
+        Files.write(tempFile.toPath(), corrupt);
+        assertThrows(IOException.class, () -> new ListReader().readTasksWithJournal(tempFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void testLazyMapMatchesListReader() throws Exception {
+        writeToFile(tempFile, "[T] [ ] a\n\tDescription: first\n[D] [X] d\n\tDescription: desc\n\tBy: 01/FEB/2099\n"
+                + "[E] [ ] e\n\tDescription: desc\n\tStart Time: 01/JAN/2099\n\tEnd Time: 02/JAN/2099\n"
+                + "\tLocation: Somewhere\n[T] [X] a\n\tDescription: second\n");
+        Map<String, Task> expected = new ListReader().readTasksFromFile(tempFile.getAbsolutePath());
+        LazyTaskMap lazy = LazyTaskMap.open(tempFile.getAbsolutePath());
+        assertEquals(0, lazy.getResidentCount());
+        assertEquals("second", lazy.get("a").getDescription());
+        assertEquals(1, lazy.getResidentCount());
+        assertSameTasks(expected, lazy);
+
+        new ListMapWriter().writeMapToFile(expected, tempFile.getAbsolutePath(), TaskFileFormat.BINARY);
+        lazy = LazyTaskMap.open(tempFile.getAbsolutePath());
+        assertSameTasks(expected, lazy);
+        lazy.remove("d");
+        lazy.put("t", new Todo("t", "new"));
+        assertEquals(3, lazy.size());
+        assertFalse(lazy.containsKey("d"));
+        assertEquals(Set.of("a", "e", "t"), lazy.keySet());
+    }
+
+    @Test
+    public void testNameIndexOverLazyMapDecodesNothing() throws Exception {
+        LazyTaskMap lazy = openLazyTasks(50);
+        TaskMap tasks = lazy.asTaskMap();
+        tasks.getNameIndex();
+        assertEquals(0, lazy.getResidentCount());
+        assertEquals("description 7", tasks.getNameIndex().find("TASK7").getDescription());
+        assertEquals(1, lazy.getResidentCount());
+    }
+
+    @Test
+    public void testSortedIndexOverLazyMapDecodesNothing() throws Exception {
+        LazyTaskMap lazy = openLazyTasks(50);
+        TaskMap tasks = lazy.asTaskMap();
+        assertEquals("task0", tasks.getSortedIndex().names().first());
+        assertEquals(0, lazy.getResidentCount());
+        assertEquals(2, tasks.getSortedIndex().page("task8", 5).size());
+        assertEquals(2, lazy.getResidentCount());
+    }
+
+    @Test
+    public void testTokenIndexOverLazyMapDecodesNothing() throws Exception {
+        LazyTaskMap lazy = openLazyTasks(50);
+        TaskMap tasks = lazy.asTaskMap();
+        assertEquals(Set.of("task7"), tasks.getTokenIndex().lookup("task7"));
+        assertEquals(0, lazy.getResidentCount());
+        assertEquals(1, tasks.getTokenIndex().search("task7").size());
+        assertEquals(1, lazy.getResidentCount());
+    }
+
+    @Test
+    public void testTrigramIndexOverLazyMapDecodesNothing() throws Exception {
+        LazyTaskMap lazy = openLazyTasks(50);
+        TaskMap tasks = lazy.asTaskMap();
+        assertEquals(50, tasks.getTrigramIndex(false).estimate("tas"));
+        assertEquals(0, lazy.getResidentCount());
+        assertEquals(1, tasks.getTrigramIndex(false).search("task42").size());
+        assertEquals(1, lazy.getResidentCount());
+    }
+
+    @Test
+    public void testLazyMapLeavesSnapshotReplaceable() throws Exception {
+        LazyTaskMap lazy = openLazyTasks(50);
+        Map<String, Task> compacted = new HashMap<>();
+        compacted.put("task0", new Todo("task0", "compacted"));
+        new ListMapWriter().writeMapToFile(compacted, tempFile.getAbsolutePath(), TaskFileFormat.BINARY);
+
+        // The map reads its own copy, so the replaced snapshot does not change it
+        assertEquals(50, lazy.size());
+        assertEquals("description 7", lazy.get("task7").getDescription());
+        assertEquals("compacted", LazyTaskMap.open(tempFile.getAbsolutePath()).get("task0").getDescription());
+        File[] copies = tempFile.getAbsoluteFile().getParentFile().listFiles((directory, name) ->
+                name.startsWith(tempFile.getName()) && name.endsWith(LazyTaskMap.MAPPED_SUFFIX));
+        assertEquals(0, copies.length);
+    }
+
+    private LazyTaskMap openLazyTasks(int count) throws Exception {
+        Map<String, Task> saved = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            saved.put("task" + i, new Todo("task" + i, "description " + i));
+        }
+        new ListMapWriter().writeMapToFile(saved, tempFile.getAbsolutePath(), TaskFileFormat.BINARY);
+        return LazyTaskMap.open(tempFile.getAbsolutePath());
+    }
+
+    private void assertSameTasks(Map<String, Task> expected, Map<String, Task> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Task> entry : expected.entrySet()) {
+            Task task = actual.get(entry.getKey());
+            assertEquals(entry.getValue().getClass(), task.getClass());
+            assertEquals(entry.getValue().toString(), task.toString());
+        }
+    }
+
     private void writeToFile(File file, String content) throws Exception {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
             writer.write(content);
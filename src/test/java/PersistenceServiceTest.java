@@ -0,0 +1,236 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import task.FuzzyIndex;
+import task.Task;
+import task.TaskMap;
+import task.Todo;
+import util.ListMapWriter;
+import util.ListReader;
+import util.PersistenceService;
+import util.SegmentedTaskMap;
+import util.SnapshotWriter;
+import util.TaskFileFormat;
+import util.TaskJournal;
+
+public class PersistenceServiceTest {
+    private File tempFile;
+    private TaskJournal journal;
+    private Path segmentDirectory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        tempFile = File.createTempFile("tasks", ".txt");
+        journal = new TaskJournal(tempFile.getAbsolutePath());
+        segmentDirectory = Files.createTempDirectory("segments");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        tempFile.delete();
+        new File(journal.getJournalPath()).delete();
+        try (Stream<Path> files = Files.list(segmentDirectory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(segmentDirectory);
+    }
+
+    @Test
+    public void testBurstIsDurableAfterAwait() throws Exception {
+        PersistenceService persistence = new PersistenceService(journal, TaskFileFormat.TEXT);
+        int count = 1000;
+        for (int i = 0; i < count; i++) {
+            persistence.recordAdd(new Todo("task" + i, "description " + i));
+        }
+        persistence.recordMark("task1");
+        persistence.recordDelete("task2");
+        persistence.awaitDurable();
+
+        Map<String, Task> tasks = new ListReader().readTasksWithJournal(tempFile.getAbsolutePath());
+        assertEquals(count - 1, tasks.size());
+        assertTrue(tasks.get("task1").isDone());
+        assertFalse(tasks.containsKey("task2"));
+    }
+
+    @Test
+    public void testRecordsQueuedWhileWriterIsBusyAreOneBatch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SnapshotWriter heldSnapshot = taskList -> () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        };
+        PersistenceService persistence = new PersistenceService(journal, heldSnapshot, 0);
+        persistence.compactIfNeeded(new HashMap<>()); // keeps the writer thread busy until released
+        int count = 100;
+        for (int i = 0; i < count; i++) {
+            persistence.recordAdd(new Todo("task" + i, "description " + i));
+        }
+        release.countDown();
+        persistence.awaitDurable();
+
+        assertEquals(1, persistence.getWriteCount());
+        assertEquals(count, new ListReader().readTasksWithJournal(tempFile.getAbsolutePath()).size());
+    }
+
+    @Test
+    public void testSnapshotKeepsTaskStateFromCapture() throws Exception {
+        Map<String, Task> tasks = new HashMap<>();
+        tasks.put("task", new Todo("task", "description"));
+        SnapshotWriter.Snapshot snapshot = SnapshotWriter.toFile(tempFile.getAbsolutePath(), TaskFileFormat.TEXT)
+                .capture(tasks);
+        tasks.get("task").markDone(); // changed after the capture, as the command thread would
+        snapshot.write();
+
+        assertFalse(new ListReader().readTasksFromFile(tempFile.getAbsolutePath()).get("task").isDone());
+    }
+
+    @Test
+    public void testCompactionFoldsJournalIntoSnapshot() throws Exception {
+        PersistenceService persistence = new PersistenceService(journal, TaskFileFormat.BINARY, 64);
+        Map<String, Task> tasks = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            Todo todo = new Todo("task" + i, "description " + i);
+            tasks.put(todo.getName(), todo);
+            persistence.recordAdd(todo);
+            persistence.compactIfNeeded(tasks);
+            persistence.awaitDurable();
+        }
+        Todo last = new Todo("last", "added after the final compaction");
+        tasks.put(last.getName(), last);
+        persistence.recordAdd(last);
+        persistence.awaitDurable();
+
+        // Only the records since the last compaction remain, instead of all eleven
+        assertTrue(new File(journal.getJournalPath()).length() < 128);
+        Map<String, Task> reloaded = new ListReader().readTasksWithJournal(tempFile.getAbsolutePath());
+        assertEquals(tasks.keySet(), reloaded.keySet());
+    }
+
+    @Test
+    public void testWriteSnapshotClearsJournal() throws Exception {
+        PersistenceService persistence = new PersistenceService(journal, TaskFileFormat.TEXT);
+        Map<String, Task> tasks = new HashMap<>();
+        Todo todo = new Todo("a", "b");
+        tasks.put(todo.getName(), todo);
+        persistence.recordAdd(todo);
+        persistence.writeSnapshot(tasks);
+
+        assertEquals(0, new File(journal.getJournalPath()).length());
+        assertFalse(new File(tempFile.getAbsolutePath() + ".tmp").exists());
+        assertEquals(tasks.keySet(), new ListReader().readTasksFromFile(tempFile.getAbsolutePath()).keySet());
+    }
+
+    @Test
+    public void testRecordChangesWritesOnlyChangedTasks() throws Exception {
+        Map<String, Task> saved = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            saved.put("task" + i, new Todo("task" + i, "description " + i));
+        }
+        new ListMapWriter().writeMapToFile(saved, tempFile.getAbsolutePath());
+        TaskMap tasks = new TaskMap(new ListReader().readTasksFromFile(tempFile.getAbsolutePath()));
+        PersistenceService persistence = new PersistenceService(journal, TaskFileFormat.TEXT);
+
+        Task marked = tasks.get("task1");
+        marked.markDone();
+        assertTrue(marked.isDirty());
+        tasks.remove("task2");
+        tasks.put("new", new Todo("new", "added"));
+        tasks.get("new").markDone();
+        persistence.recordChanges(tasks);
+        persistence.awaitDurable();
+
+        assertFalse(marked.isDirty());
+        assertFalse(tasks.hasChanges());
+        // One record per changed task: mark, delete, and an add that already carries the status
+        assertEquals(3, Files.readAllLines(Path.of(journal.getJournalPath())).size());
+        Map<String, Task> reloaded = new ListReader().readTasksWithJournal(tempFile.getAbsolutePath());
+        assertEquals(tasks.keySet(), reloaded.keySet());
+        assertTrue(reloaded.get("task1").isDone());
+        assertTrue(reloaded.get("new").isDone());
+    }
+
+    @Test
+    public void testReplayedMarkSurvivesSegmentedCompaction() throws Exception {
+        SegmentedTaskMap store = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        TaskJournal segmentJournal = new TaskJournal(store.getManifestPath());
+        TaskMap tasks = store.asTaskMap();
+        for (int i = 0; i < 100; i++) {
+            tasks.put("task" + i, new Todo("task" + i, "description " + i));
+        }
+        PersistenceService persistence = new PersistenceService(segmentJournal,
+                snapshot -> store.captureDirtySegments(), Long.MAX_VALUE);
+        persistence.writeSnapshot(tasks);
+        tasks.drainChanges();
+
+        // Mark a task; only the journal records it
+        tasks.get("task1").markDone();
+        persistence.recordChanges(tasks);
+        persistence.awaitDurable();
+
+        // Reopen, replay, and compact the journal into the segments
+        SegmentedTaskMap reopened = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        TaskMap reopenedTasks = reopened.asTaskMap();
+        segmentJournal.replay(reopenedTasks);
+        reopenedTasks.drainChanges();
+        new PersistenceService(segmentJournal, snapshot -> reopened.captureDirtySegments(), Long.MAX_VALUE)
+                .writeSnapshot(reopenedTasks);
+        assertEquals(0, new File(segmentJournal.getJournalPath()).length());
+
+        SegmentedTaskMap compacted = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        assertTrue(compacted.get("task1").isDone());
+    }
+
+    @Test
+    public void testSegmentedStoreLoadsOnlyTouchedSegments() throws Exception {
+        SegmentedTaskMap store = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        for (int i = 0; i < 100; i++) {
+            store.put("task" + i, new Todo("task" + i, "description " + i));
+        }
+        store.get("task1").markDone();
+        store.markChanged("task1");
+        store.captureDirtySegments().write();
+
+        SegmentedTaskMap reopened = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        assertFalse(reopened.isNew());
+        assertEquals(100, reopened.size());
+        assertEquals(0, reopened.getLoadedSegmentCount());
+        assertTrue(reopened.get("task1").isDone());
+        assertEquals(1, reopened.getLoadedSegmentCount());
+        assertEquals(store.keySet(), reopened.keySet());
+        // Names come from the key files, so a name index loads no segment
+        assertTrue(reopened.asTaskMap().getNameIndex().find("TASK2") != null);
+        assertEquals(2, reopened.getLoadedSegmentCount());
+    }
+
+    @Test
+    public void testFuzzyIndexOverSegmentedStoreLoadsNoSegment() throws Exception {
+        SegmentedTaskMap store = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        for (int i = 0; i < 100; i++) {
+            store.put("task" + i, new Todo("task" + i, "description " + i));
+        }
+        store.captureDirtySegments().write();
+
+        SegmentedTaskMap reopened = SegmentedTaskMap.open(segmentDirectory.toString(), TaskFileFormat.BINARY);
+        List<FuzzyIndex.Match> matches = reopened.asTaskMap().getFuzzyIndex().closest("tsak42", 2, 3);
+        assertEquals("task42", matches.get(0).name());
+        assertEquals(0, reopened.getLoadedSegmentCount());
+    }
+}
@@ -0,0 +1,356 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import task.DateIndex;
+import task.Deadline;
+import task.Event;
+import task.FuzzyIndex;
+import task.NameIndex;
+import task.SearchCursor;
+import task.SortedNameIndex;
+import task.StatusIndex;
+import task.StatusIndex.Filter;
+import task.Task;
+import task.TaskMap;
+import task.TaskQuery;
+import task.TokenIndex;
+import task.Todo;
+import task.TrigramIndex;
+import task.UpcomingIndex;
+
+public class TaskMapTest {
+    private TaskMap tasks;
+
+    @BeforeEach
+    public void setUp() {
+        tasks = new TaskMap();
+        for (String name : List.of("Buy milk", "buy-bread", "Read Book", "buttermilk pancakes")) {
+            tasks.put(name, new Todo(name, "description"));
+        }
+    }
+
+    @Test
+    public void testTokenize() {
+        assertEquals(Set.of("buy", "milk"), TokenIndex.tokenize("Buy  milk!"));
+        assertEquals(Set.of("buy", "bread"), TokenIndex.tokenize("buy-bread"));
+    }
+
+    @Test
+    public void testTokenSearchFollowsChanges() {
+        TokenIndex index = tasks.getTokenIndex();
+        assertEquals(Set.of("Buy milk", "buy-bread"), index.lookup("buy"));
+        assertEquals(List.of(tasks.get("Buy milk")), index.search("buy milk"));
+        // Part of a word is not a token
+        assertTrue(index.search("termilk").isEmpty());
+
+        tasks.remove("Buy milk");
+        tasks.put("milk run", new Todo("milk run", "description"));
+        assertEquals(Set.of("milk run"), index.lookup("milk"));
+        List<Task> matches = index.search("milk");
+        assertEquals(1, matches.size());
+        assertEquals("milk run", matches.get(0).getName());
+    }
+
+    @Test
+    public void testTrigramSearchMatchesSubstringScan() {
+        tasks.put("Team event", new Event("Team event", "offsite", LocalDate.of(2099, 1, 1),
+                LocalDate.of(2099, 1, 2), "Lakeside"));
+        TrigramIndex index = tasks.getTrigramIndex(false);
+        for (String query : List.of("milk", "ermil", "bu", "b", "", "read", "xyz", "Buy", "lakes")) {
+            List<String> expected = new ArrayList<>();
+            for (Task task : tasks.values()) {
+                if (task.getName().toLowerCase().contains(query)) {
+                    expected.add(task.getName());
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            index.search(query).forEach(task -> actual.add(task.getName()));
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual), query);
+        }
+
+        tasks.remove("buttermilk pancakes");
+        assertTrue(index.search("ermil").isEmpty());
+        assertEquals(1, tasks.getTrigramIndex(true).search("lakes").size());
+    }
+
+    @Test
+    public void testSearchCursorPagesWithoutRepeats() {
+        SearchCursor cursor = new SearchCursor(List.of(tasks.getTokenIndex().matches("milk"),
+                tasks.getTrigramIndex(false).matches("milk")));
+        List<Task> first = cursor.nextPage(1);
+        assertEquals(List.of(tasks.get("Buy milk")), first);
+        assertTrue(cursor.hasMore());
+        // The whole-word match is not repeated by the substring matches
+        assertEquals(List.of(tasks.get("buttermilk pancakes")), cursor.nextPage(5));
+        assertTrue(cursor.nextPage(5).isEmpty());
+        assertEquals(tasks.get("buttermilk pancakes"), cursor.select(2));
+        assertNull(cursor.select(3));
+    }
+
+    @Test
+    public void testFuzzyIndexMatchesBruteForce() {
+        Random random = new Random(7);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int length = 3 + random.nextInt(6); length > 0; length--) {
+                name.append((char) ('a' + random.nextInt(4)));
+            }
+            names.add(name.toString());
+            tasks.put(name.toString(), new Todo(name.toString(), "description"));
+        }
+        FuzzyIndex index = tasks.getFuzzyIndex();
+        for (int i = 0; i < 1500; i++) {
+            tasks.remove(names.get(i));
+        }
+        for (String query : List.of("abca", "dddddd", "BUY MLK", "cab")) {
+            Set<String> expected = new HashSet<>();
+            for (String name : tasks.keySet()) {
+                if (levenshtein(name.toLowerCase(), query.toLowerCase()) <= 2) {
+                    expected.add(name);
+                }
+            }
+            Set<String> actual = new HashSet<>();
+            for (FuzzyIndex.Match match : index.closest(query, 2, Integer.MAX_VALUE)) {
+                actual.add(match.name());
+            }
+            assertEquals(expected, actual, query);
+        }
+        List<FuzzyIndex.Match> best = index.closest("Buy mlik", 2, 1);
+        assertEquals("Buy milk", best.get(0).name());
+        assertEquals(2, best.get(0).distance());
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    d[i][j] = Math.min(d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                            Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    @Test
+    public void testStatusIndexMatchesScan() {
+        Random random = new Random(3);
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            String name = "task " + i;
+            Task task = switch (random.nextInt(3)) {
+            case 0 -> new Todo(name, "description");
+            case 1 -> new Deadline(name, "description", day);
+            default -> new Event(name, "description", day, day, "location");
+            };
+            tasks.put(name, task);
+        }
+        StatusIndex index = tasks.getStatusIndex();
+        for (int i = 0; i < 500; i += 3) {
+            tasks.get("task " + i).markDone();
+        }
+        for (int i = 0; i < 500; i += 7) {
+            tasks.remove("task " + i);
+        }
+        tasks.put("task 7", new Todo("task 7", "description")); // reuses a freed id
+        for (EnumSet<Filter> filters : List.of(EnumSet.noneOf(Filter.class), EnumSet.of(Filter.DONE),
+                EnumSet.of(Filter.UNDONE, Filter.DEADLINE), EnumSet.of(Filter.TODO), EnumSet.of(Filter.EVENT))) {
+            Set<Task> expected = new HashSet<>();
+            for (Task task : tasks.values()) {
+                boolean isMatch = (!filters.contains(Filter.DONE) || task.isDone())
+                        && (!filters.contains(Filter.UNDONE) || !task.isDone())
+                        && (!filters.contains(Filter.TODO) || task instanceof Todo)
+                        && (!filters.contains(Filter.DEADLINE) || task instanceof Deadline)
+                        && (!filters.contains(Filter.EVENT) || task instanceof Event);
+                if (isMatch) {
+                    expected.add(task);
+                }
+            }
+            assertEquals(expected.size(), index.count(filters));
+            assertEquals(expected, new HashSet<>(index.list(filters)));
+        }
+    }
+
+    @Test
+    public void testQueryPlanMatchesScan() {
+        LocalDate day = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < 300; i++) {
+            String name = (i % 10 == 0 ? "report " : "chore ") + i;
+            Task task = i % 2 == 0 ? new Deadline(name, "description", day.plusDays(i))
+                    : new Todo(name, "description");
+            tasks.put(name, task);
+            if (i % 3 == 0) {
+                task.markDone();
+            }
+        }
+        String text = "type:deadline done:false due<2026-06-01 name~REPORT";
+        TaskQuery.Plan plan = TaskQuery.parse(text).plan(tasks, false);
+        assertTrue(plan.explain().startsWith("access: trigram index on name~REPORT"), plan.explain());
+        Set<Task> expected = new HashSet<>();
+        for (Task task : tasks.values()) {
+            if (task instanceof Deadline deadline && !task.isDone() && deadline.getByTime().isBefore(
+                    LocalDate.of(2026, 6, 1)) && task.getName().startsWith("report")) {
+                expected.add(task);
+            }
+        }
+        assertEquals(expected, new HashSet<>(plan.execute()));
+
+        plan = TaskQuery.parse("due>=2026-10-01 due<=2026-10-04").plan(tasks, false);
+        assertTrue(plan.explain().startsWith("access: date index"), plan.explain());
+        assertEquals(2, plan.execute().size());
+        assertTrue(plan.explain().endsWith("residual: none"), plan.explain());
+    }
+
+    @Test
+    public void testQueryRejectsUnknownTerms() {
+        for (String text : List.of("colour:red", "due<tomorrow", "type:chore", "name~\"open", " ")) {
+            try {
+                TaskQuery.parse(text);
+                throw new AssertionError("accepted " + text);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage() != null);
+            }
+        }
+    }
+
+    @Test
+    public void testRenderingIsCachedUntilStatusChanges() {
+        Task event = new Event("trip", "pack", LocalDate.of(2024, 9, 18), LocalDate.of(2024, 9, 20), "COM1");
+        String rendered = event.toString();
+        assertEquals("[E] [ ] trip\n\tDescription: pack\n\tStart Time: 18/SEP/2024\n\tEnd Time: 20/SEP/2024"
+                + "\n\tLocation: COM1", rendered);
+        assertTrue(rendered == event.toString());
+        event.markDone();
+        assertTrue(event.toString().startsWith("[E] [X] trip"));
+    }
+
+    @Test
+    public void testNameIndexIgnoresCase() {
+        NameIndex index = tasks.getNameIndex();
+        assertEquals("Read Book", index.find("read book").getName());
+        assertEquals(NameIndex.fold("Read Book"), NameIndex.fold("rEAD bOOK"));
+
+        tasks.put("read book", new Todo("read book", "description"));
+        assertEquals("read book", index.find("read book").getName());
+        assertEquals("Read Book", index.find("Read Book").getName());
+
+        tasks.remove("Read Book");
+        assertEquals("read book", index.find("READ BOOK").getName());
+        tasks.remove("read book");
+        assertNull(index.find("read book"));
+    }
+
+    @Test
+    public void testSortedIndexPages() {
+        SortedNameIndex index = tasks.getSortedIndex();
+        assertEquals(List.of("Buy milk", "Read Book", "buttermilk pancakes", "buy-bread"), List.copyOf(index.names()));
+
+        tasks.put("Apple", new Todo("Apple", "description"));
+        tasks.remove("Read Book");
+        List<Task> page = index.page("B", 2);
+        assertEquals(2, page.size());
+        assertEquals("Buy milk", page.get(0).getName());
+        assertEquals("buttermilk pancakes", page.get(1).getName());
+        assertEquals("buy-bread", index.nameAfter("buttermilk pancakes"));
+        assertNull(index.nameAfter("buy-bread"));
+    }
+
+    @Test
+    public void testDateIndexMatchesScan() {
+        Random random = new Random(42);
+        TaskMap dated = new TaskMap();
+        DateIndex index = dated.getDateIndex();
+        LocalDate base = LocalDate.of(2099, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = base.plusDays(random.nextInt(365));
+            Task task = i % 2 == 0
+                    ? new Deadline("d" + i, "due", start)
+                    : new Event("e" + i, "event", start, start.plusDays(random.nextInt(30)), "here");
+            dated.put(task.getName(), task);
+        }
+        for (int i = 0; i < 500; i += 7) {
+            dated.remove((i % 2 == 0 ? "d" : "e") + i);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            LocalDate from = base.plusDays(random.nextInt(400) - 20);
+            LocalDate to = from.plusDays(random.nextInt(60));
+            Set<String> due = new HashSet<>();
+            Set<String> dueBefore = new HashSet<>();
+            Set<String> overlapping = new HashSet<>();
+            for (Task task : dated.values()) {
+                if (task instanceof Deadline deadline) {
+                    LocalDate by = deadline.getByTime();
+                    if (!by.isBefore(from) && !by.isAfter(to)) {
+                        due.add(task.getName());
+                    }
+                    if (by.isBefore(from)) {
+                        dueBefore.add(task.getName());
+                    }
+                } else if (task instanceof Event event
+                        && !event.getStartTime().isAfter(to) && !event.getEndTime().isBefore(from)) {
+                    overlapping.add(task.getName());
+                }
+            }
+            assertEquals(due, names(index.dueBetween(from, to)));
+            assertEquals(dueBefore, names(index.dueBefore(from)));
+            assertEquals(overlapping, names(index.eventsOverlapping(from, to)));
+        }
+    }
+
+    @Test
+    public void testUpcomingSkipsDoneTasks() {
+        LocalDate today = LocalDate.of(2099, 6, 1);
+        tasks.put("late", new Deadline("late", "overdue", today.minusDays(1)));
+        tasks.put("soon", new Deadline("soon", "due", today.plusDays(1)));
+        tasks.put("later", new Event("later", "event", today.plusDays(3), today.plusDays(4), "here"));
+        tasks.put("today", new Deadline("today", "due", today));
+        UpcomingIndex index = tasks.getUpcomingIndex();
+        List<Task> next = index.next(today, 2);
+        assertEquals("today", next.get(0).getName());
+        assertEquals("soon", next.get(1).getName());
+
+        tasks.get("today").markDone();
+        assertEquals("soon", index.next(today, 1).get(0).getName());
+        tasks.get("today").markUndone();
+        tasks.remove("soon");
+        next = index.next(today, 5);
+        assertEquals(2, next.size());
+        assertEquals("today", next.get(0).getName());
+        assertEquals("later", next.get(1).getName());
+    }
+
+    @Test
+    public void testUpcomingIncludesOngoingEvents() {
+        LocalDate today = LocalDate.of(2099, 6, 1);
+        tasks.put("ended", new Event("ended", "event", today.minusDays(3), today.minusDays(1), "here"));
+        tasks.put("ongoing", new Event("ongoing", "event", today.minusDays(2), today.plusDays(2), "here"));
+        tasks.put("soon", new Deadline("soon", "due", today.plusDays(1)));
+        List<Task> next = tasks.getUpcomingIndex().next(today, 5);
+        assertEquals(2, next.size());
+        assertEquals("soon", next.get(0).getName());
+        assertEquals("ongoing", next.get(1).getName());
+    }
+
+    private static Set<String> names(List<Task> tasks) {
+        Set<String> names = new HashSet<>();
+        tasks.forEach(task -> names.add(task.getName()));
+        return names;
+    }
+}